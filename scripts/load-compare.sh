@@ -0,0 +1,75 @@
+#!/usr/bin/env bash
+# Load comparison: platform-thread Tomcat (default) vs virtual threads ("virtual" profile).
+#
+#   mvn -Pjava21 -DskipTests package        # virtual threads need a Java 21 build and runtime
+#   scripts/load-compare.sh [requests] [concurrency]
+#
+# Results so far: scripts/load-compare-results.md
+#
+# Each mode starts the jar on its own port, warms up, then posts a mix of timesheet and
+# attendance requests for all seeded employees and prints throughput and latency percentiles.
+set -euo pipefail
+
+REQUESTS=${1:-240}
+CONCURRENCY=${2:-48}
+JAR=${JAR:-target/TimesheetGen-0.0.1-SNAPSHOT.jar}
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+IDS=(13536906 11038403 15590 13536128 13536160 13841327 IKT7152 IKT7161 TRE-604 TRE-1815 TRE-2024 13414729)
+
+java_major=$(java -XshowSettings:properties -version 2>&1 | awk -F'= ' '/java.specification.version/ {print $2}')
+if [ "${java_major%%.*}" -lt 21 ]; then
+    echo "warning: java $java_major - spring.threads.virtual.enabled is ignored below 21, both runs use platform threads" >&2
+fi
+
+# one request body per line: "<path> <json>"
+make_requests() {
+    for ((i = 0; i < REQUESTS; i++)); do
+        id=${IDS[$((i % ${#IDS[@]}))]}
+        month=$(( (i / ${#IDS[@]}) % 12 + 1 ))
+        if (( i % 2 == 0 )); then
+            echo "/api/generate-timesheet {\"employeeId\":\"$id\",\"year\":2025,\"month\":$month,\"managerApproval\":\"Approved\",\"saturdayWeekoff\":1}"
+        else
+            echo "/api/attendance/generate {\"employeeId\":\"$id\",\"year\":2025,\"month\":$month,\"saturdayWeekoff\":2}"
+        fi
+    done
+}
+
+run_mode() {
+    local mode=$1 port=$2 profile=$3
+    local dir="$WORK/$mode"
+    mkdir -p "$dir"
+
+    (cd "$dir" && exec java -jar "$OLDPWD/$JAR" --server.port="$port" ${profile:+--spring.profiles.active=$profile} \
+        > app.log 2>&1) &
+    local pid=$!
+    until curl -s -o /dev/null "http://localhost:$port/"; do
+        kill -0 "$pid" 2>/dev/null || { echo "$mode: app failed to start, see $dir/app.log" >&2; exit 1; }
+        sleep 1
+    done
+
+    # warm-up: JIT, POI classes, the year workbooks
+    REQUESTS=24 make_requests | xargs -d '\n' -n 1 -P 4 sh -c \
+        'curl -s -o /dev/null -H "Content-Type: application/json" -d "${0#* }" "http://localhost:'"$port"'${0%% *}"'
+
+    local start end
+    start=$(date +%s.%N)
+    make_requests | xargs -d '\n' -n 1 -P "$CONCURRENCY" sh -c \
+        'curl -s -o /dev/null -w "%{http_code} %{time_total}\n" -H "Content-Type: application/json" -d "${0#* }" "http://localhost:'"$port"'${0%% *}"' \
+        > "$dir/latencies.txt"
+    end=$(date +%s.%N)
+
+    kill "$pid"; wait "$pid" 2>/dev/null || true
+
+    sort -k2 -n "$dir/latencies.txt" | awk -v mode="$mode" -v secs="$(awk -v a="$start" -v b="$end" 'BEGIN { print b - a }')" '
+        { lat[NR] = $2; if ($1 != 200) errors++ }
+        END {
+            printf "%-9s %5d req in %6.2fs  %7.1f req/s  p50 %6.3fs  p95 %6.3fs  p99 %6.3fs  max %6.3fs  non-200 %d\n",
+                mode, NR, secs, NR / secs, lat[int(NR * 0.50)], lat[int(NR * 0.95)], lat[int(NR * 0.99)], lat[NR], errors
+        }'
+}
+
+echo "requests=$REQUESTS concurrency=$CONCURRENCY jar=$JAR"
+run_mode platform 18082 ""
+run_mode virtual 18083 virtual
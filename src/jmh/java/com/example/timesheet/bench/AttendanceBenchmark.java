@@ -0,0 +1,85 @@
+package com.example.timesheet.bench;
+
+import com.example.timesheet.dto.AttendanceRequest;
+import com.example.timesheet.service.AttendanceService;
+import com.example.timesheet.service.AttendanceSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.timesheet.bench.BenchFixtures.*;
+
+/**
+ * Attendance update and extract against a year workbook that already holds
+ * {@code existingSheets} employee sheets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AttendanceBenchmark {
+
+    @Param({"1", "10", "100", "500"})
+    int existingSheets;
+
+    @Param({"SHORT", "LONG", "BUSY"})
+    MonthShape shape;
+
+    private AttendanceService service;
+    private AttendanceRequest request;
+    // the same month with other remarks, so alternating the two always rewrites the block
+    private AttendanceRequest edited;
+    private boolean editedNext;
+    private AttendanceSheet generated;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Files.deleteIfExists(attendanceFile());
+        service = attendanceService();
+
+        // one real sheet, cloned to the requested size
+        service.generateAttendance(shape.attendanceRequest("SEED-0"));
+        try (InputStream in = Files.newInputStream(attendanceFile());
+             XSSFWorkbook wb = new XSSFWorkbook(in)) {
+            for (int i = 1; i < existingSheets; i++) {
+                wb.cloneSheet(0, "SEED" + i);
+            }
+            try (OutputStream out = Files.newOutputStream(attendanceFile())) {
+                wb.write(out);
+            }
+        }
+
+        request = shape.attendanceRequest(EMPLOYEE_ID);
+        edited = shape.attendanceRequest(EMPLOYEE_ID);
+        edited.remarks = "edited";
+        generated = service.generateAttendance(request);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(attendanceFile());
+    }
+
+    @Benchmark
+    public AttendanceSheet generateAttendance() throws Exception {
+        editedNext = !editedNext;
+        return service.generateAttendance(editedNext ? edited : request);
+    }
+
+    // a resubmission of what the file already holds
+    @Benchmark
+    public AttendanceSheet generateAttendanceUnchanged() throws Exception {
+        return service.generateAttendance(request);
+    }
+
+    @Benchmark
+    public void extractSheetsForEmployee() throws Exception {
+        service.extractSheetsForEmployee(generated, OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.timesheet.bench;
+
+import com.example.timesheet.entity.Employee;
+import com.example.timesheet.metrics.GenerationMetrics;
+import com.example.timesheet.repository.EmployeeDirectory;
+import com.example.timesheet.repository.EmployeeRepository;
+import com.example.timesheet.service.AttendanceService;
+import com.example.timesheet.service.RenderLimiter;
+import com.example.timesheet.service.TimesheetService;
+import com.example.timesheet.storage.BlockFingerprints;
+import com.example.timesheet.storage.ResponseCache;
+import com.example.timesheet.storage.TimesheetSheetStore;
+import com.example.timesheet.storage.WorkbookLocks;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Services wired by hand (no Spring context) against an in-memory employee list.
+ */
+final class BenchFixtures {
+
+    // far enough out not to touch a real attendance-<year>.xlsx in the working directory
+    static final int YEAR = 2099;
+
+    static final String EMPLOYEE_ID = "BENCH-1";
+
+    private BenchFixtures() {
+    }
+
+    // Employees are made up on demand, so any id resolves
+    static EmployeeRepository employees() {
+        return (EmployeeRepository) Proxy.newProxyInstance(
+                EmployeeRepository.class.getClassLoader(),
+                new Class<?>[]{EmployeeRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByEmployeeId" -> Optional.of(employee((String) args[0]));
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "BenchEmployees";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static Employee employee(String id) {
+        String first = id.replaceAll("[^A-Za-z0-9]", "");
+        return new Employee(first + " Bench", id, first.toLowerCase() + "@example.com", "01-Jan-2020");
+    }
+
+    // nothing listens for employee changes outside a Spring context
+    static EmployeeDirectory directory() {
+        return new EmployeeDirectory(employees(), event -> { }, 1024);
+    }
+
+    // the response cache is off, so repeating a request measures generating it
+    static TimesheetService timesheetService(TimesheetSheetStore store) {
+        return new TimesheetService(directory(), store, new ResponseCache(0), new RenderLimiter(0), metrics(), false, false);
+    }
+
+    static AttendanceService attendanceService() {
+        return new AttendanceService(directory(), new WorkbookLocks(64), new RenderLimiter(0), new BlockFingerprints(), metrics(), false);
+    }
+
+    // recorded but never read, so the benchmarks pay the same timer overhead as the app
+    static GenerationMetrics metrics() {
+        return new GenerationMetrics(new SimpleMeterRegistry());
+    }
+
+    static Path attendanceFile() {
+        return Path.of(String.format("attendance-%d.xlsx", YEAR));
+    }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.timesheet.bench;
+
+import com.example.timesheet.dto.AttendanceRequest;
+import com.example.timesheet.dto.TimesheetRequest;
+
+import java.time.DayOfWeek;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.timesheet.bench.BenchFixtures.YEAR;
+
+// Month layouts the benchmarks are parameterized with (public: JMH's generated code refers to it)
+public enum MonthShape {
+    // 28 days, nothing special
+    SHORT(2, 0, 0),
+    // 31 days, five Sundays
+    LONG(3, 0, 0),
+    // 31 days with holidays, leaves and every Saturday off
+    BUSY(8, 4, 5);
+
+    final int month;
+    final int holidays;
+    final int leaves;
+
+    MonthShape(int month, int holidays, int leaves) {
+        this.month = month;
+        this.holidays = holidays;
+        this.leaves = leaves;
+    }
+
+    // holidays on even, leaves on odd weekdays: never the same day, never a Saturday
+    private List<String> weekdays(int parity, int count) {
+        List<String> days = new ArrayList<>();
+        YearMonth ym = YearMonth.of(YEAR, month);
+        for (int d = 1, weekday = 0; d <= ym.lengthOfMonth() && days.size() < count; d++) {
+            DayOfWeek dow = ym.atDay(d).getDayOfWeek();
+            if (dow == DayOfWeek.SATURDAY || dow == DayOfWeek.SUNDAY) continue;
+            if (weekday++ % 2 == parity) days.add(ym.atDay(d).toString());
+        }
+        return days;
+    }
+
+    TimesheetRequest timesheetRequest(String employeeId) {
+        TimesheetRequest req = new TimesheetRequest();
+        req.setEmployeeId(employeeId);
+        req.setYear(YEAR);
+        req.setMonth(month);
+        req.setManagerApproval("Approved");
+        req.setSaturdayWeekoff(holidays > 0 ? TimesheetRequest.ALL_WEEKOFF : TimesheetRequest.WEEKOFF_1ST_3RD);
+        List<String> hol = weekdays(0, holidays);
+        req.setHolidays(hol);
+        req.setRemarks(hol.stream().map(d -> "Holiday " + d).toList());
+        req.setLeaveDates(weekdays(1, leaves));
+        return req;
+    }
+
+    AttendanceRequest attendanceRequest(String employeeId) {
+        AttendanceRequest req = new AttendanceRequest();
+        req.employeeId = employeeId;
+        req.year = YEAR;
+        req.month = month;
+        req.saturdayWeekoff = holidays > 0 ? AttendanceRequest.ALL_WEEKOFF : AttendanceRequest.WEEKOFF_2ND_4TH;
+        req.publicHolidays = weekdays(0, holidays);
+        req.leaveDates = weekdays(1, leaves);
+        req.remarks = "bench";
+        return req;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.timesheet.bench;
+
+import com.example.timesheet.excel.SheetCopier;
+import com.example.timesheet.excel.StyleRegistry;
+import com.example.timesheet.storage.TimesheetSheetStore;
+import com.example.timesheet.storage.WorkbookLocks;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.timesheet.bench.BenchFixtures.*;
+
+/**
+ * {@link SheetCopier} on its own: one rendered timesheet sheet and one attendance sheet,
+ * copied into a fresh workbook with its own {@link StyleRegistry}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SheetCopyBenchmark {
+
+    @Param({"SHORT", "LONG", "BUSY"})
+    MonthShape shape;
+
+    private Path storeDir;
+    private XSSFWorkbook timesheetSource;
+    private XSSFWorkbook attendanceSource;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        storeDir = Files.createTempDirectory("sheetcopy-bench");
+        TimesheetSheetStore store = new TimesheetSheetStore(storeDir.toString(), new WorkbookLocks(16));
+        timesheetService(store).generateTimesheet(shape.timesheetRequest(EMPLOYEE_ID));
+        try (InputStream in = Files.newInputStream(store.partFor(YEAR, EMPLOYEE_ID, shape.month))) {
+            timesheetSource = new XSSFWorkbook(in);
+        }
+
+        Files.deleteIfExists(attendanceFile());
+        attendanceService().generateAttendance(shape.attendanceRequest(EMPLOYEE_ID));
+        try (InputStream in = Files.newInputStream(attendanceFile())) {
+            attendanceSource = new XSSFWorkbook(in);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        timesheetSource.close();
+        attendanceSource.close();
+        deleteRecursively(storeDir);
+        Files.deleteIfExists(attendanceFile());
+    }
+
+    @Benchmark
+    public XSSFWorkbook copyTimesheetSheet() {
+        return copy(timesheetSource);
+    }
+
+    @Benchmark
+    public XSSFWorkbook copyAttendanceSheet() {
+        return copy(attendanceSource);
+    }
+
+    private static XSSFWorkbook copy(XSSFWorkbook source) {
+        XSSFWorkbook dest = new XSSFWorkbook();
+        Sheet src = source.getSheetAt(0);
+        SheetCopier.copySheet(src, dest.createSheet(src.getSheetName()), new StyleRegistry(dest));
+        return dest;
+    }
+}
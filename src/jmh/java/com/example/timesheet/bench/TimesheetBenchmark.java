@@ -0,0 +1,85 @@
+package com.example.timesheet.bench;
+
+import com.example.timesheet.dto.TimesheetRequest;
+import com.example.timesheet.service.TimesheetService;
+import com.example.timesheet.storage.TimesheetSheetStore;
+import com.example.timesheet.storage.WorkbookLocks;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.timesheet.bench.BenchFixtures.*;
+
+/**
+ * Timesheet generation and the workbooks assembled from stored parts.
+ * {@code existingSheets} is the number of parts stored for the year: first the benchmark
+ * employee's other months (up to 11), then other employees.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimesheetBenchmark {
+
+    @Param({"1", "10", "100", "500"})
+    int existingSheets;
+
+    @Param({"SHORT", "LONG", "BUSY"})
+    MonthShape shape;
+
+    private Path storeDir;
+    private TimesheetService service;
+    private TimesheetRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        storeDir = Files.createTempDirectory("timesheet-bench");
+        TimesheetSheetStore store = new TimesheetSheetStore(storeDir.toString(), new WorkbookLocks(16));
+        service = timesheetService(store);
+        request = shape.timesheetRequest(EMPLOYEE_ID);
+
+        // the employee's own months are rendered (each needs its own sheet name),
+        // other employees are copies of the benchmarked part
+        Path seed = service.writePart(employee(EMPLOYEE_ID), service.computeMonth(request));
+
+        int month = 1;
+        for (int i = 1; i < existingSheets; i++) {
+            if (month == shape.month) month++;
+            if (month <= 12) {
+                TimesheetRequest other = MonthShape.SHORT.timesheetRequest(EMPLOYEE_ID);
+                other.setMonth(month++);
+                service.writePart(employee(EMPLOYEE_ID), service.computeMonth(other));
+            } else {
+                Path target = store.partFor(YEAR, "SEED-" + i, shape.month);
+                Files.createDirectories(target.getParent());
+                Files.copy(seed, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        deleteRecursively(storeDir);
+    }
+
+    @Benchmark
+    public byte[] generateTimesheet() throws Exception {
+        return service.generateTimesheet(request);
+    }
+
+    @Benchmark
+    public void extractSheetsForEmployee() throws Exception {
+        service.extractSheetsForEmployee(YEAR, EMPLOYEE_ID, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void assembleYearWorkbook() throws Exception {
+        service.assembleYearWorkbook(YEAR, OutputStream.nullOutputStream());
+    }
+}
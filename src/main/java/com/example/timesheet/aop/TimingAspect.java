@@ -0,0 +1,112 @@
+package com.example.timesheet.aop;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wall time and allocated bytes of every service call, recorded into per-method meters
+ * ({@code timesheet_service_call_seconds}, {@code timesheet_service_allocated_bytes}).
+ * Nothing is logged for an ordinary call: a call slower than the threshold is logged at
+ * WARN, and one call in every {@code sample-every} at INFO. Arguments are never logged,
+ * so request DTOs are not formatted on the hot path.
+ */
+@Aspect
+@Component
+public class TimingAspect {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimingAspect.class);
+
+    private final MeterRegistry registry;
+    private final long slowThresholdNanos;
+    private final long sampleEvery;
+    // null when allocation tracking is off or the JVM doesn't support it
+    private final com.sun.management.ThreadMXBean allocation;
+
+    private final Map<Method, Meters> meters = new ConcurrentHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+
+    public TimingAspect(MeterRegistry registry,
+                        @Value("${timesheet.timing.slow-threshold-ms:500}") long slowThresholdMs,
+                        @Value("${timesheet.timing.sample-every:0}") long sampleEvery,
+                        @Value("${timesheet.timing.allocation:true}") boolean trackAllocation) {
+        this.registry = registry;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        this.sampleEvery = sampleEvery;
+        this.allocation = trackAllocation ? allocationBean() : null;
+    }
+
+    // Pointcut for all public methods inside service package; the render limiter only wraps
+    // service calls that are timed themselves
+    @Pointcut("execution(* com.example.timesheet.service..*(..)) && !within(com.example.timesheet.service.RenderLimiter)")
+    public void serviceMethods() {}
+
+    @Around("serviceMethods()")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            long allocated = allocatedBytes() - allocatedBefore;
+
+            Meters m = meters.computeIfAbsent(((MethodSignature) joinPoint.getSignature()).getMethod(), this::register);
+            m.time.record(elapsed, TimeUnit.NANOSECONDS);
+            if (allocation != null) m.allocated.record(allocated);
+
+            if (elapsed >= slowThresholdNanos) {
+                logger.warn("Slow service call {}: {} ms, {} KB allocated", m.name, elapsed / 1_000_000, allocated / 1024);
+            } else if (sampleEvery > 0 && calls.incrementAndGet() % sampleEvery == 0) {
+                logger.info("Service call {}: {} ms, {} KB allocated", m.name, elapsed / 1_000_000, allocated / 1024);
+            }
+        }
+    }
+
+    private long allocatedBytes() {
+        return allocation == null ? 0 : allocation.getCurrentThreadAllocatedBytes();
+    }
+
+    private Meters register(Method method) {
+        String name = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        Timer time = Timer.builder("timesheet.service.call")
+                .description("Wall time per service method")
+                .tag("method", name)
+                .register(registry);
+        DistributionSummary allocated = DistributionSummary.builder("timesheet.service.allocated")
+                .description("Bytes allocated by the calling thread per service method")
+                .baseUnit("bytes")
+                .tag("method", name)
+                .register(registry);
+        return new Meters(name, time, allocated);
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            return bean;
+        }
+        return null;
+    }
+
+    private record Meters(String name, Timer time, DistributionSummary allocated) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.timesheet.calendar;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A set of days of one month, as a bitmask: bit n is day n. Membership, counts and
+ * overlaps are single int operations, so classifying the days of a month needs no
+ * dates, boxing or hashing. Immutable.
+ */
+public final class DaySet {
+
+    public static final DaySet EMPTY = new DaySet(0);
+
+    private final int bits;
+
+    private DaySet(int bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * Days of the given ISO dates (yyyy-MM-dd), which must all fall in year/month.
+     *
+     * @param badFormat    exception for a date that is missing or doesn't parse; null rethrows the
+     *                     parse error (and rejects a missing date with IllegalArgumentException)
+     * @param outsideMonth exception for a date in another month
+     */
+    public static DaySet parse(List<String> dates, int year, int month,
+                               Function<String, ? extends RuntimeException> badFormat,
+                               Function<String, ? extends RuntimeException> outsideMonth) {
+        if (dates == null || dates.isEmpty()) return EMPTY;
+
+        int bits = 0;
+        for (String d : dates) {
+            // LocalDate.parse(null) would be an NPE, a server error rather than bad input
+            if (d == null) {
+                throw badFormat != null ? badFormat.apply(null) : new IllegalArgumentException("Date must not be null");
+            }
+            LocalDate date;
+            try {
+                date = LocalDate.parse(d);
+            } catch (DateTimeException e) {
+                if (badFormat == null) throw e;
+                throw badFormat.apply(d);
+            }
+            if (date.getYear() != year || date.getMonthValue() != month) {
+                throw outsideMonth.apply(d);
+            }
+            bits |= 1 << date.getDayOfMonth();
+        }
+        return new DaySet(bits);
+    }
+
+    public boolean contains(int day) {
+        return (bits & (1 << day)) != 0;
+    }
+
+    public DaySet union(DaySet other) {
+        return new DaySet(bits | other.bits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof DaySet other && other.bits == bits;
+    }
+
+    @Override
+    public int hashCode() {
+        return bits;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int day = 1; day <= 31; day++) {
+            if (contains(day)) sb.append(sb.length() > 1 ? ", " : "").append(day);
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.timesheet.calendar;
+
+import com.example.timesheet.dto.TimesheetRequest;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The days of one month under one Saturday week-off policy, worked out once and shared:
+ * a day type per day plus the dates and labels the sheets print. Days are 1-based, like
+ * day-of-month. Instances are immutable and cached per (year, month, policy), so building
+ * a month's rows walks arrays instead of creating dates and formatting strings per day.
+ */
+public final class MonthCalendar {
+
+    // day types
+    public static final byte WORKDAY = 0;
+    public static final byte WORKING_SATURDAY = 1;
+    public static final byte SUNDAY = 2;
+    public static final byte SATURDAY_OFF = 3;
+
+    // labels shared by every month: "01".."31", "Mon".."Sun" (DayOfWeek order), "01-Jan".."31-Dec"
+    private static final String[] DAY_NUMBERS = new String[32];
+    private static final String[] DAY_NAMES = new String[7];
+    private static final String[][] DATE_LABELS = new String[12][32];
+
+    static {
+        for (int d = 1; d <= 31; d++) {
+            DAY_NUMBERS[d] = String.format("%02d", d);
+        }
+        for (DayOfWeek dow : DayOfWeek.values()) {
+            DAY_NAMES[dow.ordinal()] = dow.getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
+        }
+        for (Month m : Month.values()) {
+            String name = m.getDisplayName(TextStyle.SHORT_STANDALONE, Locale.ENGLISH);
+            for (int d = 1; d <= 31; d++) {
+                DATE_LABELS[m.ordinal()][d] = DAY_NUMBERS[d] + "-" + name;
+            }
+        }
+    }
+
+    // validated requests span 1900..2100, about 10k (month, policy) pairs; past this, months are built uncached
+    private static final int MAX_CACHED = 4096;
+    private static final Map<Integer, MonthCalendar> CACHE = new ConcurrentHashMap<>();
+
+    private final int year;
+    private final int month;
+    private final byte[] types;
+    private final LocalDate[] dates;
+    private final String[] dayNames;
+
+    private MonthCalendar(int year, int month, int saturdayWeekoff) {
+        this.year = year;
+        this.month = month;
+
+        YearMonth ym = YearMonth.of(year, month);
+        int length = ym.lengthOfMonth();
+        this.types = new byte[length + 1];
+        this.dates = new LocalDate[length + 1];
+        this.dayNames = new String[length + 1];
+
+        LocalDate date = ym.atDay(1);
+        for (int d = 1; d <= length; d++, date = date.plusDays(1)) {
+            DayOfWeek dow = date.getDayOfWeek();
+            dates[d] = date;
+            dayNames[d] = DAY_NAMES[dow.ordinal()];
+            if (dow == DayOfWeek.SUNDAY) {
+                types[d] = SUNDAY;
+            } else if (dow == DayOfWeek.SATURDAY) {
+                types[d] = isSaturdayOff(saturdayWeekoff, (d - 1) / 7 + 1) ? SATURDAY_OFF : WORKING_SATURDAY;
+            } else {
+                types[d] = WORKDAY;
+            }
+        }
+    }
+
+    /**
+     * @param saturdayWeekoff one of the {@code TimesheetRequest.WEEKOFF_*} / {@code ALL_WEEKOFF}
+     *                        policies; any other value means every Saturday is worked
+     */
+    public static MonthCalendar of(int year, int month, int saturdayWeekoff) {
+        int policy = saturdayWeekoff >= TimesheetRequest.WEEKOFF_1ST_3RD && saturdayWeekoff <= TimesheetRequest.ALL_WEEKOFF
+                ? saturdayWeekoff : 0;
+        if (month < 1 || month > 12) {
+            throw new IllegalArgumentException("month must be 1..12");
+        }
+
+        int key = ((year * 12) + (month - 1)) * 4 + policy;
+        MonthCalendar cal = CACHE.get(key);
+        if (cal != null) return cal;
+
+        cal = new MonthCalendar(year, month, policy);
+        if (CACHE.size() < MAX_CACHED) {
+            MonthCalendar raced = CACHE.putIfAbsent(key, cal);
+            if (raced != null) cal = raced;
+        }
+        return cal;
+    }
+
+    private static boolean isSaturdayOff(int policy, int saturdayNumber) {
+        return switch (policy) {
+            case TimesheetRequest.WEEKOFF_1ST_3RD -> saturdayNumber == 1 || saturdayNumber == 3;
+            case TimesheetRequest.WEEKOFF_2ND_4TH -> saturdayNumber == 2 || saturdayNumber == 4;
+            case TimesheetRequest.ALL_WEEKOFF -> true;
+            default -> false;
+        };
+    }
+
+    public int year() {
+        return year;
+    }
+
+    public int month() {
+        return month;
+    }
+
+    public int length() {
+        return types.length - 1;
+    }
+
+    public byte type(int day) {
+        return types[day];
+    }
+
+    public LocalDate date(int day) {
+        return dates[day];
+    }
+
+    public boolean isSunday(int day) {
+        return types[day] == SUNDAY;
+    }
+
+    public boolean isSaturday(int day) {
+        return types[day] == WORKING_SATURDAY || types[day] == SATURDAY_OFF;
+    }
+
+    public boolean isSaturdayOff(int day) {
+        return types[day] == SATURDAY_OFF;
+    }
+
+    // Sunday or a Saturday off under the policy
+    public boolean isWeekOff(int day) {
+        return types[day] == SUNDAY || types[day] == SATURDAY_OFF;
+    }
+
+    // "07"
+    public String dayNumber(int day) {
+        return DAY_NUMBERS[day];
+    }
+
+    // "Wed"
+    public String dayName(int day) {
+        return dayNames[day];
+    }
+
+    // "07-Jan"
+    public String dateLabel(int day) {
+        return DATE_LABELS[month - 1][day];
+    }
+}
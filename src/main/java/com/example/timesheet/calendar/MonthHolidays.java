@@ -0,0 +1,54 @@
+package com.example.timesheet.calendar;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The holidays of one month, each paired with its remark when the request is parsed.
+ * Holidays and remarks are matched by position in the request, whatever order the
+ * dates come in; lookups are by day of month.
+ */
+public final class MonthHolidays {
+
+    // index = day of month, null = not a holiday
+    private final String[] remarks = new String[32];
+
+    private MonthHolidays() {
+    }
+
+    /**
+     * @param remarks remark of each holiday, in the same order; missing remarks are blank
+     * @throws IllegalArgumentException for a missing date or one outside the month
+     */
+    public static MonthHolidays parse(int year, int month, List<String> dates, List<String> remarks) {
+        MonthHolidays holidays = new MonthHolidays();
+        if (dates == null) return holidays;
+
+        for (int i = 0; i < dates.size(); i++) {
+            String d = dates.get(i);
+            // LocalDate.parse(null) would be an NPE, a server error rather than bad input
+            if (d == null) {
+                throw new IllegalArgumentException("Holiday " + (i + 1) + " has no date");
+            }
+            LocalDate holiday = LocalDate.parse(d);
+            if (holiday.getYear() != year || holiday.getMonthValue() != month) {
+                throw new IllegalArgumentException("Holiday " + d + " doesn't belong to month " + month + "/" + year);
+            }
+            String remark = remarks != null && i < remarks.size() && remarks.get(i) != null ? remarks.get(i) : "";
+            // a date listed twice keeps its first remark
+            if (holidays.remarks[holiday.getDayOfMonth()] == null) {
+                holidays.remarks[holiday.getDayOfMonth()] = remark;
+            }
+        }
+        return holidays;
+    }
+
+    public boolean contains(int day) {
+        return remarks[day] != null;
+    }
+
+    // remark of a holiday, "" for any other day
+    public String remark(int day) {
+        return remarks[day] == null ? "" : remarks[day];
+    }
+}
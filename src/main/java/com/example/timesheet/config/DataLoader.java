@@ -1,7 +1,7 @@
 package com.example.timesheet.config;
 
 import com.example.timesheet.entity.Employee;
-import com.example.timesheet.repository.EmployeeRepository;
+import com.example.timesheet.repository.EmployeeDirectory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
@@ -11,9 +11,9 @@ import java.util.List;
 @Component
 public class DataLoader implements CommandLineRunner {
 
-    private final EmployeeRepository repo;
+    private final EmployeeDirectory repo;
 
-    public DataLoader(EmployeeRepository repo){
+    public DataLoader(EmployeeDirectory repo){
         this.repo=repo;
     }
 
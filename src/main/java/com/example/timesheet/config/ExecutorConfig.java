@@ -0,0 +1,33 @@
+package com.example.timesheet.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ExecutorConfig {
+
+    // Sheet rendering is CPU bound, so by default one thread per core
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService renderExecutor(@Value("${timesheet.render.threads:0}") int threads) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return Executors.newFixedThreadPool(size, new CustomizableThreadFactory("timesheet-render-"));
+    }
+
+    // Async generation jobs: fixed workers and a bounded queue; submits beyond it are rejected (429)
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService jobExecutor(@Value("${timesheet.jobs.threads:2}") int threads,
+                                       @Value("${timesheet.jobs.queue-capacity:50}") int queueCapacity) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("timesheet-job-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.timesheet.config;
+
+import com.example.timesheet.excel.SheetCopier;
+import com.example.timesheet.excel.StyleRegistry;
+import com.example.timesheet.storage.TimesheetSheetStore;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One-time import of the yearly workbooks written before timesheets were stored per
+ * employee/month ({@code timesheet-<year>.xlsx} in {@code timesheet.legacy.dir}). Each sheet
+ * becomes its employee's part for that month, unless the month has been generated since;
+ * the workbook is then renamed to {@code timesheet-<year>.xlsx.imported}, so the import
+ * runs once. Sheets that don't show an employee id and month are left out, with a warning.
+ * <p>
+ * Off unless {@code timesheet.legacy.dir} is set: the rename can't be undone by the app, so
+ * the directory to migrate is chosen by whoever deploys it.
+ */
+@Component
+public class LegacyTimesheetImport implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LegacyTimesheetImport.class);
+
+    private static final Pattern LEGACY_NAME = Pattern.compile("timesheet-(\\d{4})\\.xlsx");
+    // the legacy sheet layout: labels in column B of the employee block, values in column D
+    private static final int LABEL_COL = 1;
+    private static final int VALUE_COL = 3;
+    private static final int EMPLOYEE_BLOCK_END = 20;
+
+    private final TimesheetSheetStore sheetStore;
+    private final Path dir;
+
+    public LegacyTimesheetImport(TimesheetSheetStore sheetStore,
+                                 @Value("${timesheet.legacy.dir:}") String dir) {
+        this.sheetStore = sheetStore;
+        this.dir = dir.isBlank() ? null : Paths.get(dir);
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        if (dir == null) return;
+        if (!Files.isDirectory(dir)) {
+            logger.warn("Legacy timesheet directory {} does not exist, nothing imported", dir);
+            return;
+        }
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "timesheet-*.xlsx")) {
+            for (Path file : files) {
+                Matcher m = LEGACY_NAME.matcher(file.getFileName().toString());
+                if (!m.matches()) continue;
+
+                try {
+                    int imported = importWorkbook(file, Integer.parseInt(m.group(1)));
+                    Files.move(file, file.resolveSibling(file.getFileName() + ".imported"));
+                    logger.info("Imported {} month(s) from {}", imported, file);
+                } catch (IOException | RuntimeException e) {
+                    // left in place, to be retried on the next start
+                    logger.error("Could not import {}", file, e);
+                }
+            }
+        }
+    }
+
+    private int importWorkbook(Path file, int year) throws IOException {
+        int imported = 0;
+        try (InputStream in = Files.newInputStream(file);
+             XSSFWorkbook legacy = new XSSFWorkbook(in)) {
+
+            for (Sheet sheet : legacy) {
+                String employeeId = employeeId(sheet);
+                int month = month(sheet.getSheetName(), year);
+                if (employeeId == null || month == 0) {
+                    logger.warn("Skipped sheet '{}' of {}: no employee id or month", sheet.getSheetName(), file);
+                    continue;
+                }
+                // generated since the switch to parts: that one is newer
+                if (Files.exists(sheetStore.partFor(year, employeeId, month))) continue;
+
+                try (XSSFWorkbook part = new XSSFWorkbook()) {
+                    SheetCopier.copySheet(sheet, part.createSheet(sheet.getSheetName()), new StyleRegistry(part));
+                    sheetStore.write(year, employeeId, month, part);
+                }
+                logger.info("Imported sheet '{}' of {} as employee {}, month {}",
+                        sheet.getSheetName(), file, employeeId, month);
+                imported++;
+            }
+        }
+        return imported;
+    }
+
+    // the value next to the "Employee ID:" label
+    private static String employeeId(Sheet sheet) {
+        DataFormatter formatter = new DataFormatter();
+        for (int r = 0; r <= Math.min(sheet.getLastRowNum(), EMPLOYEE_BLOCK_END); r++) {
+            Row row = sheet.getRow(r);
+            if (row == null) continue;
+            if ("Employee ID:".equals(formatter.formatCellValue(row.getCell(LABEL_COL)).trim())) {
+                String id = formatter.formatCellValue(row.getCell(VALUE_COL)).trim();
+                return id.isEmpty() ? null : id;
+            }
+        }
+        return null;
+    }
+
+    // sheets were named like "Sudhir, Jan 2025"; 0 when the name doesn't end in a month of the year
+    private static int month(String sheetName, int year) {
+        String suffix = " " + year;
+        int comma = sheetName.lastIndexOf(", ");
+        if (comma < 0 || !sheetName.endsWith(suffix)) return 0;
+
+        String name = sheetName.substring(comma + 2, sheetName.length() - suffix.length());
+        for (Month month : Month.values()) {
+            if (month.getDisplayName(TextStyle.SHORT_STANDALONE, Locale.ENGLISH).equals(name)) {
+                return month.getValue();
+            }
+        }
+        return 0;
+    }
+}
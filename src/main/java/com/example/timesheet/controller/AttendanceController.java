@@ -1,16 +1,14 @@
 package com.example.timesheet.controller;
 
+import com.example.timesheet.dto.AttendanceRangeRequest;
 import com.example.timesheet.dto.AttendanceRequest;
 import com.example.timesheet.service.AttendanceService;
+import com.example.timesheet.service.AttendanceSheet;
 import jakarta.validation.Valid;
-import org.springframework.core.io.ByteArrayResource;
+import org.apache.poi.ss.usermodel.Workbook;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
-
-import java.io.ByteArrayOutputStream;
-import java.time.LocalDate;
-import java.time.YearMonth;
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/attendance")
@@ -28,18 +26,19 @@ public class AttendanceController {
      * workbook bytes so client can download immediately.
      */
     @PostMapping("/generate")
-    public ResponseEntity<byte[]> generate(@RequestBody @Valid AttendanceRequest req) throws Exception {
+    public ResponseEntity<StreamingResponseBody> generate(@RequestBody @Valid AttendanceRequest req) throws Exception {
 
         // ⭐ 1. Validate all incoming date lists
-        validateDates(req);
+        RequestValidation.validateDates(req);
 
         // 1. Generate or load master YEAR workbook
-        byte[] file = service.generateAttendance(req);
+        AttendanceSheet generated = service.generateAttendance(req);
 
-        // 2. Extract only sheets for the employee
-        byte[] file1 = service.extractSheetsForEmployee();
         //System.out.println("YEAR = " + req.year);
 
+        // 2. Extract only sheets for the employee, before the response is committed
+        Workbook sheet = service.renderEmployeeSheet(generated);
+
         // 3. File name
         String fileName = String.format("attendance-%d.xlsx",req.year);
 
@@ -50,39 +49,31 @@ public class AttendanceController {
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
                 .header("Access-Control-Expose-Headers", "Content-Disposition")
                 .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                .body(file1);
-    }
-
-//
-
-    private void validateDates(AttendanceRequest req) {
-        YearMonth ym = YearMonth.of(req.year, req.month);
-
-        validateDateList(req.leaveDates, ym, "leaveDates");
-        validateDateList(req.weekOffDates, ym, "weekOffDates");
-        validateDateList(req.compOff, ym, "compOff");
-        validateDateList(req.publicHolidays, ym, "publicHolidays");
+                .body(Downloads.streamed(out -> service.writeEmployeeSheet(sheet, out)));
     }
 
-    private void validateDateList(List<String> dates, YearMonth ym, String fieldName) {
-        if (dates == null) return;
+    /**
+     * Several months of one employee in one call (e.g. the whole year): every month block
+     * is written with a single load and save of attendance-YYYY.xlsx. Returns the
+     * employee's sheet, like /generate.
+     */
+    @PostMapping("/generate-range")
+    public ResponseEntity<StreamingResponseBody> generateRange(@RequestBody @Valid AttendanceRangeRequest req) throws Exception {
 
-        for (String d : dates) {
-            LocalDate dateObj;
+        RequestValidation.validateRange(req);
 
-            try {
-                dateObj = LocalDate.parse(d);
-            } catch (Exception e) {
-                throw new IllegalArgumentException(fieldName + " contains invalid date format: " + d);
-            }
+        AttendanceSheet generated = service.generateAttendanceRange(req);
+        Workbook sheet = service.renderEmployeeSheet(generated);
 
-            if (dateObj.getYear() != ym.getYear() || dateObj.getMonthValue() != ym.getMonthValue()) {
-                throw new IllegalArgumentException(
-                        fieldName + " contains date not matching the request year/month: " + d
-                );
-            }
-        }
+        String fileName = String.format("attendance-%d.xlsx", req.year);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .header("Access-Control-Expose-Headers", "Content-Disposition")
+                .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .body(Downloads.streamed(out -> service.writeEmployeeSheet(sheet, out)));
     }
 
+//
+
 }
 
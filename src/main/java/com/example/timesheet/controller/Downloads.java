@@ -0,0 +1,50 @@
+package com.example.timesheet.controller;
+
+import com.example.timesheet.jobs.GenerationJobService;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Download bodies written straight to the response stream, instead of being built as a byte[] first
+final class Downloads {
+
+    private Downloads() {
+    }
+
+    /**
+     * A body generated while it is sent, e.g. {@code out -> service.assembleWorkbook(parts, out)}.
+     * Validate before returning it: once bytes are out, an error can no longer become a 400.
+     */
+    static StreamingResponseBody streamed(GenerationJobService.Work work) {
+        return out -> {
+            try {
+                work.writeTo(out);
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        };
+    }
+
+    // a finished file, handed to the response by FileChannel.transferTo rather than read into the heap;
+    // whenDone runs once it is sent or the transfer failed
+    static StreamingResponseBody file(Path file, Runnable whenDone) {
+        return out -> {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(out);
+                long size = channel.size();
+                for (long position = 0; position < size; ) {
+                    position += channel.transferTo(position, size - position, target);
+                }
+            } finally {
+                whenDone.run();
+            }
+        };
+    }
+}
@@ -3,7 +3,8 @@ package com.example.timesheet.controller;
 
 
 import com.example.timesheet.entity.Employee;
-import com.example.timesheet.repository.EmployeeRepository;
+import com.example.timesheet.repository.EmployeeDirectory;
+import org.springframework.dao.DataIntegrityViolationException;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,16 +17,16 @@ import java.time.format.DateTimeFormatter;
 //@CrossOrigin("*")
 public class EmployeeController {
 
-    private final EmployeeRepository repo;
+    private final EmployeeDirectory repo;
 
-    public EmployeeController(EmployeeRepository repo) {
+    public EmployeeController(EmployeeDirectory repo) {
         this.repo = repo;
     }
 
     @PostMapping
     public ResponseEntity<String> saveEmployee(@RequestBody @Valid Employee emp) {
 
-        boolean existingEmployee = repo.findByEmployeeId(emp.getEmployeeId()).isPresent();
+        boolean existingEmployee = repo.find(emp.getEmployeeId()).isPresent();
 
         if (existingEmployee){
             return ResponseEntity.badRequest().body("Employee already exists");
@@ -51,7 +52,12 @@ public class EmployeeController {
             return ResponseEntity.badRequest().body("Joining date cannot be a future date");
         }
         // SAVE TO DB OR FILE
-        repo.save(emp);
+        try {
+            repo.save(emp);
+        } catch (DataIntegrityViolationException e) {
+            // lost a race with another save of the same employeeId (unique index)
+            return ResponseEntity.badRequest().body("Employee already exists");
+        }
         return ResponseEntity.ok("Employee saved");
     }
 
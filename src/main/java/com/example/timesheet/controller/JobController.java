@@ -0,0 +1,140 @@
+package com.example.timesheet.controller;
+
+import com.example.timesheet.dto.AttendanceRangeRequest;
+import com.example.timesheet.dto.AttendanceRequest;
+import com.example.timesheet.dto.TeamTimesheetRequest;
+import com.example.timesheet.dto.TimesheetRequest;
+import com.example.timesheet.jobs.GenerationJob;
+import com.example.timesheet.jobs.GenerationJobService;
+import com.example.timesheet.service.AttendanceService;
+import com.example.timesheet.service.TeamTimesheetService;
+import com.example.timesheet.service.TimesheetService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+
+/**
+ * Asynchronous variants of the generate endpoints. A submit returns 202 with the job id
+ * right away; poll {@code GET /api/jobs/{id}} until the status is DONE, then fetch
+ * {@code GET /api/jobs/{id}/download}. Returns 429 when the job queue is full.
+ */
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    private static final String XLSX = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    private final GenerationJobService jobs;
+    private final TimesheetService timesheetService;
+    private final TeamTimesheetService teamService;
+    private final AttendanceService attendanceService;
+
+    public JobController(GenerationJobService jobs,
+                         TimesheetService timesheetService,
+                         TeamTimesheetService teamService,
+                         AttendanceService attendanceService) {
+        this.jobs = jobs;
+        this.timesheetService = timesheetService;
+        this.teamService = teamService;
+        this.attendanceService = attendanceService;
+    }
+
+    @PostMapping("/timesheet")
+    public ResponseEntity<GenerationJob> timesheet(@RequestBody @Valid TimesheetRequest req) {
+
+        RequestValidation.checkHolidayRemarks(req.getHolidays(), req.getRemarks());
+
+        String fileName = String.format("timesheet-%d.xlsx", req.getYear());
+        return accepted(jobs.submit("timesheet", fileName, XLSX,
+                out -> out.write(timesheetService.generateTimesheet(req))));
+    }
+
+    @PostMapping("/team-timesheet")
+    public ResponseEntity<GenerationJob> teamTimesheet(@RequestBody @Valid TeamTimesheetRequest req) {
+
+        RequestValidation.checkHolidayRemarks(req.getHolidays(), req.getRemarks());
+
+        boolean xlsx = TeamTimesheetRequest.FORMAT_XLSX.equals(req.getFormat());
+        String fileName = String.format("timesheets-%d-%02d.%s", req.getYear(), req.getMonth(), xlsx ? "xlsx" : "zip");
+        return accepted(jobs.submit("team-timesheet", fileName, xlsx ? XLSX : "application/zip",
+                out -> teamService.writeTeam(teamService.renderTeam(req), out)));
+    }
+
+    @PostMapping("/timesheet-workbook/{year}")
+    public ResponseEntity<GenerationJob> yearWorkbook(@PathVariable int year) {
+
+        String fileName = String.format("timesheet-%d.xlsx", year);
+        return accepted(jobs.submit("timesheet-workbook", fileName, XLSX,
+                out -> timesheetService.assembleYearWorkbook(year, out)));
+    }
+
+    @PostMapping("/attendance")
+    public ResponseEntity<GenerationJob> attendance(@RequestBody @Valid AttendanceRequest req) {
+
+        RequestValidation.validateDates(req);
+
+        String fileName = String.format("attendance-%d.xlsx", req.year);
+        return accepted(jobs.submit("attendance", fileName, XLSX,
+                out -> attendanceService.extractSheetsForEmployee(attendanceService.generateAttendance(req), out)));
+    }
+
+    @PostMapping("/attendance-range")
+    public ResponseEntity<GenerationJob> attendanceRange(@RequestBody @Valid AttendanceRangeRequest req) {
+
+        RequestValidation.validateRange(req);
+
+        String fileName = String.format("attendance-%d.xlsx", req.year);
+        return accepted(jobs.submit("attendance-range", fileName, XLSX,
+                out -> attendanceService.extractSheetsForEmployee(attendanceService.generateAttendanceRange(req), out)));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<GenerationJob> status(@PathVariable String id) {
+        return jobs.find(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/download")
+    public ResponseEntity<StreamingResponseBody> download(@PathVariable String id) throws IOException {
+
+        GenerationJob job = jobs.find(id).orElse(null);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.getStatus() != GenerationJob.Status.DONE) {
+            // still running, or failed (the status endpoint has the error)
+            return ResponseEntity.status(409).build();
+        }
+
+        // expired and deleted between the lookup and now
+        if (!job.pin()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + job.getFileName() + "\"")
+                    .header("Access-Control-Expose-Headers", "Content-Disposition")
+                    .contentType(MediaType.parseMediaType(job.getContentType()))
+                    .contentLength(Files.size(job.getResult()))
+                    // unpinned once sent, so the job can expire
+                    .body(Downloads.file(job.getResult(), job::unpin));
+        } catch (IOException | RuntimeException e) {
+            job.unpin();
+            throw e;
+        }
+    }
+
+    private static ResponseEntity<GenerationJob> accepted(GenerationJob job) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/jobs/" + job.getId()))
+                .body(job);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.timesheet.controller;
+
+import com.example.timesheet.calendar.DaySet;
+import com.example.timesheet.dto.AttendanceRangeRequest;
+import com.example.timesheet.dto.AttendanceRequest;
+
+import java.time.YearMonth;
+import java.util.List;
+
+// Checks shared by the synchronous endpoints and the job endpoints, so both reject the same input
+final class RequestValidation {
+
+    private RequestValidation() {
+    }
+
+    static void checkHolidayRemarks(List<String> holidays, List<String> remarks) {
+        if (holidays != null && remarks != null &&
+                holidays.size() != remarks.size()) {
+
+            throw new IllegalArgumentException("Holidays and Remarks must have same count");
+        }
+    }
+
+    static void validateDates(AttendanceRequest req) {
+        YearMonth ym = YearMonth.of(req.year, req.month);
+
+        validateDateList(req.leaveDates, ym, "leaveDates");
+        validateDateList(req.weekOffDates, ym, "weekOffDates");
+        validateDateList(req.compOff, ym, "compOff");
+        validateDateList(req.publicHolidays, ym, "publicHolidays");
+    }
+
+    // every month's dates, and each month at most once
+    static void validateRange(AttendanceRangeRequest range) {
+        int seen = 0;
+        for (AttendanceRequest req : range.toRequests()) {
+            int bit = 1 << req.month;
+            if ((seen & bit) != 0) {
+                throw new IllegalArgumentException("Month " + req.month + " is listed more than once");
+            }
+            seen |= bit;
+            validateDates(req);
+        }
+    }
+
+    static DaySet validateDateList(List<String> dates, YearMonth ym, String fieldName) {
+        return DaySet.parse(dates, ym.getYear(), ym.getMonthValue(),
+                d -> new IllegalArgumentException(fieldName + " contains invalid date format: " + d),
+                d -> new IllegalArgumentException(fieldName + " contains date not matching the request year/month: " + d));
+    }
+}
@@ -1,12 +1,22 @@
 package com.example.timesheet.controller;
 
+import com.example.timesheet.dto.TeamTimesheetRequest;
 import com.example.timesheet.dto.TimesheetRequest;
+import com.example.timesheet.service.TeamParts;
+import com.example.timesheet.service.TeamTimesheetService;
+import com.example.timesheet.service.TimesheetDownload;
 import com.example.timesheet.service.TimesheetService;
 import jakarta.validation.Valid;
+import org.springframework.http.ETag;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.file.Path;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api")
@@ -14,36 +24,82 @@ import org.springframework.web.bind.annotation.*;
 public class TimesheetController {
 
     private final TimesheetService service;
+    private final TeamTimesheetService teamService;
 
-    public TimesheetController(TimesheetService service){
+    public TimesheetController(TimesheetService service, TeamTimesheetService teamService){
         this.service=service;
+        this.teamService=teamService;
     }
 
     @PostMapping("/generate-timesheet")
 
-    public ResponseEntity<byte[]> generate(@RequestBody @Valid TimesheetRequest req)throws Exception{
+    public ResponseEntity<byte[]> generate(@RequestBody @Valid TimesheetRequest req,
+                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)throws Exception{
+
+        RequestValidation.checkHolidayRemarks(req.getHolidays(), req.getRemarks());
+
 
-        if (req.getHolidays() != null && req.getRemarks() != null &&
-                req.getHolidays().size() != req.getRemarks().size()) {
 
-            throw new IllegalArgumentException("Holidays and Remarks must have same count");
+        // Employee's sheets for the year, built straight from the generated month (or cached, see TimesheetService#download).
+        // Unlike the other downloads this one stays a byte[]: the bytes are what the response cache
+        // keeps and what the ETag names, and they are complete before the status is sent. A client
+        // that already holds them (If-None-Match) is answered before anything is rendered.
+        TimesheetDownload file = service.download(req, etag -> ifNoneMatch != null && ETag.parse(ifNoneMatch).stream()
+                .anyMatch(tag -> tag.isWildcard() || tag.tag().equals(etag)));
+
+        if (file.notModified()) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(file.etag())
+                    .header("Access-Control-Expose-Headers", "ETag")
+                    .build();
         }
 
 
+        String fileName = String.format("timesheet-%d.xlsx", req.getYear());
 
-        byte[] file = service.generateTimesheet(req);
 
-        // Extract only sheets for the employee
-        byte[] file1 = service.extractSheetsForEmployee();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .eTag(file.etag())
+                .header("Access-Control-Expose-Headers", "Content-Disposition, ETag")
+                .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .body(file.content());
+    }
 
+    // One month for a whole team (list of employee ids or ["all"]), as a ZIP or a single workbook
+    @PostMapping("/generate-team-timesheet")
+    public ResponseEntity<StreamingResponseBody> generateTeam(@RequestBody @Valid TeamTimesheetRequest req) throws Exception {
 
-        String fileName = String.format("timesheet-%d.xlsx", req.getYear());
+        RequestValidation.checkHolidayRemarks(req.getHolidays(), req.getRemarks());
+
+        // parts are rendered now, so errors still become a 400; they are packed while the response is sent
+        TeamParts rendered = teamService.renderTeam(req);
+
+        boolean xlsx = TeamTimesheetRequest.FORMAT_XLSX.equals(req.getFormat());
+        String fileName = String.format("timesheets-%d-%02d.%s", req.getYear(), req.getMonth(), xlsx ? "xlsx" : "zip");
+        MediaType type = xlsx
+                ? MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
+                : MediaType.parseMediaType("application/zip");
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .header("Access-Control-Expose-Headers", "Content-Disposition")
+                .contentType(type)
+                .body(Downloads.streamed(out -> teamService.writeTeam(rendered, out)));
+    }
+
+    // Yearly workbook with every employee/month generated so far
+    @GetMapping("/timesheet-workbook/{year}")
+    public ResponseEntity<StreamingResponseBody> yearWorkbook(@PathVariable int year) throws Exception {
+
+        List<Path> parts = service.yearParts(year);
 
+        String fileName = String.format("timesheet-%d.xlsx", year);
 
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
                 .header("Access-Control-Expose-Headers", "Content-Disposition")
                 .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                .body(file1);
+                .body(Downloads.streamed(out -> service.assembleWorkbook(parts, out)));
     }
 }
@@ -0,0 +1,56 @@
+package com.example.timesheet.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Several months of one employee's attendance (e.g. the whole year), written in one pass
+public class AttendanceRangeRequest {
+    @NotBlank(message = "Employee ID should not be blank")
+    public String employeeId;
+    @Min(value = 1900, message = "Year should be after 1900")
+    @Max(value = 2100, message = "Year should be before 2100")
+    public int year;
+
+    // shared by every month, see AttendanceRequest
+    public int saturdayWeekoff;
+
+    // one entry per month block to write, each month at most once
+    @NotEmpty(message = "Months should not be empty")
+    @Size(max = 12, message = "At most 12 months")
+    @Valid
+    public List<MonthInput> months;
+
+    public static class MonthInput {
+        @Min(value = 1, message = "Month should be between 1 and 12")
+        @Max(value = 12, message = "Month should be between 1 and 12")
+        public int month; // 1-12
+
+        public List<String> leaveDates;
+        public List<String> weekOffDates;
+        public List<String> compOff;
+        public List<String> publicHolidays;
+        public String remarks;
+    }
+
+    // the single-month requests this range stands for, in the order given
+    public List<AttendanceRequest> toRequests() {
+        List<AttendanceRequest> requests = new ArrayList<>();
+        for (MonthInput m : months) {
+            AttendanceRequest req = new AttendanceRequest();
+            req.employeeId = employeeId;
+            req.year = year;
+            req.month = m.month;
+            req.saturdayWeekoff = saturdayWeekoff;
+            req.leaveDates = m.leaveDates;
+            req.weekOffDates = m.weekOffDates;
+            req.compOff = m.compOff;
+            req.publicHolidays = m.publicHolidays;
+            req.remarks = m.remarks;
+            requests.add(req);
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.timesheet.dto;
+
+import jakarta.validation.constraints.*;
+
+import java.util.List;
+import java.util.Map;
+
+public class TeamTimesheetRequest {
+
+    public static final String ALL_EMPLOYEES = "all";
+
+    public static final String FORMAT_ZIP = "zip";
+    public static final String FORMAT_XLSX = "xlsx";
+
+    // employee ids, or ["all"] for every employee
+    @NotEmpty(message = "Employee IDs should not be empty")
+    private List<String> employeeIds;
+
+    @Min(value = 1900, message = "Year should be after 1900")
+    @Max(value = 2100, message = "Year should be before 2100")
+    private int year;
+
+    @Min(value = 1, message = "Month should be between 1 and 12")
+    @Max(value = 12, message = "Month should be between 1 and 12")
+    private int month;
+
+    @NotBlank(message = "ManagerApproval should not be Blank")
+    private String managerApproval;
+
+    // shared by the whole team
+    private List<String> holidays;
+    private List<String> remarks;
+    private int saturdayWeekoff;
+
+    // per employee id, optional
+    private Map<String, List<String>> leaveDates;
+
+    // zip = one workbook per employee, xlsx = one workbook with a sheet per employee
+    @Pattern(regexp = "zip|xlsx", message = "Format should be zip or xlsx")
+    private String format = FORMAT_ZIP;
+
+    public boolean isAllEmployees() {
+        return employeeIds != null && employeeIds.size() == 1 && ALL_EMPLOYEES.equalsIgnoreCase(employeeIds.get(0));
+    }
+
+    // the single-employee request this team request stands for
+    public TimesheetRequest toRequest(String employeeId) {
+        TimesheetRequest req = new TimesheetRequest();
+        req.setEmployeeId(employeeId);
+        req.setYear(year);
+        req.setMonth(month);
+        req.setManagerApproval(managerApproval);
+        req.setHolidays(holidays);
+        req.setRemarks(remarks);
+        req.setSaturdayWeekoff(saturdayWeekoff);
+        req.setLeaveDates(leaveDates == null ? null : leaveDates.get(employeeId));
+        return req;
+    }
+
+    public List<String> getEmployeeIds() {
+        return employeeIds;
+    }
+
+    public void setEmployeeIds(List<String> employeeIds) {
+        this.employeeIds = employeeIds;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public void setYear(int year) {
+        this.year = year;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public void setMonth(int month) {
+        this.month = month;
+    }
+
+    public String getManagerApproval() {
+        return managerApproval;
+    }
+
+    public void setManagerApproval(String managerApproval) {
+        this.managerApproval = managerApproval;
+    }
+
+    public List<String> getHolidays() {
+        return holidays;
+    }
+
+    public void setHolidays(List<String> holidays) {
+        this.holidays = holidays;
+    }
+
+    public List<String> getRemarks() {
+        return remarks;
+    }
+
+    public void setRemarks(List<String> remarks) {
+        this.remarks = remarks;
+    }
+
+    public int getSaturdayWeekoff() {
+        return saturdayWeekoff;
+    }
+
+    public void setSaturdayWeekoff(int saturdayWeekoff) {
+        this.saturdayWeekoff = saturdayWeekoff;
+    }
+
+    public Map<String, List<String>> getLeaveDates() {
+        return leaveDates;
+    }
+
+    public void setLeaveDates(Map<String, List<String>> leaveDates) {
+        this.leaveDates = leaveDates;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+}
+
+
+// Sample request body
+/*
+{
+  "employeeIds": ["all"],
+  "year": 2025,
+  "month": 1,
+  "managerApproval": "Approved",
+  "holidays": ["2025-01-14", "2025-01-26"],
+  "remarks": ["Makar Sankranti", "Republic Day"],
+  "leaveDates": { "13536906": ["2025-01-20"] },
+  "saturdayWeekoff": 1,
+  "format": "zip"
+}
+*/
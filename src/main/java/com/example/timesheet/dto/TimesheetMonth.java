@@ -0,0 +1,27 @@
+package com.example.timesheet.dto;
+
+import java.util.List;
+
+/**
+ * One employee's computed month: the daily rows and the totals shown above them.
+ * Produced from a {@link TimesheetRequest} before anything is rendered.
+ */
+public class TimesheetMonth {
+
+    public final int year;
+    public final int month;
+    public final List<TimesheetRow> rows;
+    public final int regularWorkDays;
+    public final int leaveDays;
+    public final double totalHours;
+
+    public TimesheetMonth(int year, int month, List<TimesheetRow> rows,
+                          int regularWorkDays, int leaveDays, double totalHours) {
+        this.year = year;
+        this.month = month;
+        this.rows = rows;
+        this.regularWorkDays = regularWorkDays;
+        this.leaveDays = leaveDays;
+        this.totalHours = totalHours;
+    }
+}
@@ -5,12 +5,16 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
 
 @Entity
+// every lookup is by employeeId, and it identifies the employee
+@Table(indexes = @Index(name = "ux_employee_employee_id", columnList = "employeeId", unique = true))
 public class Employee {
 
     @Id
@@ -0,0 +1,46 @@
+package com.example.timesheet.excel;
+
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * An image resource read once and kept in memory, for pictures that go into every
+ * generated workbook (the company logo). The bytes never leave this class, so one
+ * instance can be shared by all requests.
+ */
+public final class ClasspathImage {
+
+    private final String path;
+    private final byte[] data;
+    private final int pictureType;
+
+    private ClasspathImage(String path, byte[] data, int pictureType) {
+        this.path = path;
+        this.data = data;
+        this.pictureType = pictureType;
+    }
+
+    public static ClasspathImage png(String path) {
+        try (InputStream in = ClasspathImage.class.getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalStateException(path + " not found in resources folder");
+            }
+            return new ClasspathImage(path, in.readAllBytes(), Workbook.PICTURE_TYPE_PNG);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + path, e);
+        }
+    }
+
+    // picture index in the registry's workbook; the image is stored there at most once
+    public int addTo(StyleRegistry registry) {
+        return registry.picture(data, pictureType);
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
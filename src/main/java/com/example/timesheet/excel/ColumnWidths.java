@@ -0,0 +1,64 @@
+package com.example.timesheet.excel;
+
+import org.apache.poi.ss.usermodel.Sheet;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Column widths worked out from the text that goes into each column, as a cheap and
+ * deterministic replacement for {@code Sheet.autoSizeColumn}. autoSizeColumn lays every
+ * cell out through AWT font metrics; here glyph widths are approximated per character
+ * class for the default Calibri font and scaled by font size and weight, so the result
+ * is the same on every machine and needs no font subsystem.
+ * <p>
+ * Like {@code autoSizeColumn(col)}, only feed it cells that are not part of a merged region.
+ */
+public class ColumnWidths {
+
+    private static final int MAX_WIDTH = 255 * 256; // Excel's limit, in 1/256 of a character
+    private static final double PADDING = 1.0;      // cell margins, in characters
+    private static final double BOLD_FACTOR = 1.1;
+
+    private final Map<Integer, Double> widest = new TreeMap<>();
+
+    public ColumnWidths fit(int col, String text) {
+        return fit(col, text, null);
+    }
+
+    // font null = workbook default font, same as StyleSpec
+    public ColumnWidths fit(int col, String text, FontSpec font) {
+        if (text == null || text.isEmpty()) return this;
+        widest.merge(col, widthOf(text, font == null ? FontSpec.DEFAULT : font), Math::max);
+        return this;
+    }
+
+    // sets every column that received text; other columns keep their width
+    public void applyTo(Sheet sheet) {
+        widest.forEach((col, chars) ->
+                sheet.setColumnWidth(col, (int) Math.min(MAX_WIDTH, Math.round((chars + PADDING) * 256))));
+    }
+
+    // width of the widest line, in widths of the default font's '0'
+    static double widthOf(String text, FontSpec font) {
+        double scale = font.height() / (double) FontSpec.DEFAULT.height();
+        if (font.isBold()) scale *= BOLD_FACTOR;
+
+        double widestLine = 0;
+        for (String line : text.split("\n")) {
+            double w = 0;
+            for (int i = 0; i < line.length(); i++) {
+                w += charWidth(line.charAt(i));
+            }
+            widestLine = Math.max(widestLine, w);
+        }
+        return widestLine * scale;
+    }
+
+    private static double charWidth(char ch) {
+        if (" .,:;'|!()[]-/\\iljfrtI".indexOf(ch) >= 0) return 0.6;
+        if ("mwMW@%".indexOf(ch) >= 0) return 1.4;
+        if (Character.isUpperCase(ch)) return 1.15;
+        return 1.0;
+    }
+}
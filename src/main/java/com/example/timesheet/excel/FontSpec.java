@@ -0,0 +1,97 @@
+package com.example.timesheet.excel;
+
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.IndexedColors;
+
+import java.util.Objects;
+
+/**
+ * Value describing a font by its attributes. Used as the key of {@link StyleRegistry},
+ * so two specs that are equal always resolve to the same workbook font.
+ */
+public final class FontSpec {
+
+    /** What {@code Workbook.createFont()} gives you: Calibri 11, black. */
+    public static final FontSpec DEFAULT = new FontSpec("Calibri", (short) 220, false, false,
+            Font.U_NONE, false, IndexedColors.BLACK.getIndex(), Font.SS_NONE);
+
+    private final String name;
+    private final short height; // in twips (1/20 pt)
+    private final boolean bold;
+    private final boolean italic;
+    private final byte underline;
+    private final boolean strikeout;
+    private final short color;
+    private final short typeOffset;
+
+    private FontSpec(String name, short height, boolean bold, boolean italic,
+                     byte underline, boolean strikeout, short color, short typeOffset) {
+        this.name = name;
+        this.height = height;
+        this.bold = bold;
+        this.italic = italic;
+        this.underline = underline;
+        this.strikeout = strikeout;
+        this.color = color;
+        this.typeOffset = typeOffset;
+    }
+
+    public static FontSpec of(Font font) {
+        return new FontSpec(font.getFontName(), font.getFontHeight(), font.getBold(), font.getItalic(),
+                font.getUnderline(), font.getStrikeout(), font.getColor(), font.getTypeOffset());
+    }
+
+    public FontSpec bold() {
+        return new FontSpec(name, height, true, italic, underline, strikeout, color, typeOffset);
+    }
+
+    public FontSpec italic() {
+        return new FontSpec(name, height, bold, true, underline, strikeout, color, typeOffset);
+    }
+
+    public FontSpec underline(byte underline) {
+        return new FontSpec(name, height, bold, italic, underline, strikeout, color, typeOffset);
+    }
+
+    public FontSpec heightInPoints(short points) {
+        return new FontSpec(name, (short) (points * 20), bold, italic, underline, strikeout, color, typeOffset);
+    }
+
+    public FontSpec color(short color) {
+        return new FontSpec(name, height, bold, italic, underline, strikeout, color, typeOffset);
+    }
+
+    short height() {
+        return height;
+    }
+
+    boolean isBold() {
+        return bold;
+    }
+
+    // copies the attributes onto a freshly created font
+    void applyTo(Font font) {
+        font.setFontName(name);
+        font.setFontHeight(height);
+        if (bold) font.setBold(true);
+        if (italic) font.setItalic(true);
+        if (underline != Font.U_NONE) font.setUnderline(underline);
+        if (strikeout) font.setStrikeout(true);
+        if (color != IndexedColors.BLACK.getIndex()) font.setColor(color);
+        if (typeOffset != Font.SS_NONE) font.setTypeOffset(typeOffset);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FontSpec f)) return false;
+        return height == f.height && bold == f.bold && italic == f.italic && underline == f.underline
+                && strikeout == f.strikeout && color == f.color && typeOffset == f.typeOffset
+                && Objects.equals(name, f.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, height, bold, italic, underline, strikeout, color, typeOffset);
+    }
+}
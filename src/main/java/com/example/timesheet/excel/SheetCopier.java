@@ -0,0 +1,122 @@
+package com.example.timesheet.excel;
+
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.*;
+
+/**
+ * Copies a sheet into another workbook: column widths, merged regions, pictures,
+ * row heights and cells. Cell styles and pictures go through the destination's
+ * {@link StyleRegistry}, so copying many sheets with the same look adds each style,
+ * font and image only once.
+ */
+public final class SheetCopier {
+
+    private SheetCopier() {
+    }
+
+    public static void copySheet(Sheet src, Sheet dest, StyleRegistry destStyles) {
+
+        // 1️⃣ Column widths, up to the widest row
+        int lastCol = 0;
+        for (Row row : src) {
+            lastCol = Math.max(lastCol, row.getLastCellNum());
+        }
+        for (int c = 0; c <= lastCol; c++) {
+            dest.setColumnWidth(c, src.getColumnWidth(c));
+        }
+
+        // 2️⃣ Merged regions
+        for (CellRangeAddress region : src.getMergedRegions()) {
+            dest.addMergedRegion(region);
+        }
+
+        // 3️⃣ Drawings / Images
+        if (src instanceof XSSFSheet xssfSrc) {
+            copyPictures(xssfSrc, dest, destStyles);
+        }
+
+        // 4️⃣ Rows + cells
+        Workbook srcWb = src.getWorkbook();
+        for (int r = 0; r <= src.getLastRowNum(); r++) {
+
+            Row srcRow = src.getRow(r);
+            if (srcRow == null) continue;
+
+            Row destRow = dest.createRow(r);
+            destRow.setHeight(srcRow.getHeight());
+
+            for (int c = 0; c < srcRow.getLastCellNum(); c++) {
+
+                Cell oldCell = srcRow.getCell(c);
+                if (oldCell == null) continue;
+
+                Cell newCell = destRow.createCell(c);
+
+                // Style, resolved once per distinct look
+                newCell.setCellStyle(destStyles.copyOf(oldCell.getCellStyle(), srcWb));
+
+                // Copy cell comments
+                if (oldCell.getCellComment() != null) {
+                    newCell.setCellComment(oldCell.getCellComment());
+                }
+
+                // Copy Hyperlink
+                if (oldCell.getHyperlink() != null) {
+                    newCell.setHyperlink(oldCell.getHyperlink());
+                }
+
+                // Copy cell value / formula
+                switch (oldCell.getCellType()) {
+                    case STRING -> newCell.setCellValue(oldCell.getRichStringCellValue());
+                    case NUMERIC -> newCell.setCellValue(oldCell.getNumericCellValue());
+                    case BOOLEAN -> newCell.setCellValue(oldCell.getBooleanCellValue());
+                    case FORMULA -> newCell.setCellFormula(oldCell.getCellFormula());
+                    case BLANK -> newCell.setBlank();
+                    default -> {}
+                }
+            }
+        }
+    }
+
+    private static void copyPictures(XSSFSheet src, Sheet dest, StyleRegistry destStyles) {
+
+        XSSFDrawing srcDrawing = src.getDrawingPatriarch();
+        if (srcDrawing == null) return;
+
+        Drawing<?> destDrawing = dest.createDrawingPatriarch();
+
+        for (XSSFShape shape : srcDrawing.getShapes()) {
+
+            if (shape instanceof XSSFPicture srcPic) {
+
+                XSSFPictureData picData = srcPic.getPictureData();
+                XSSFClientAnchor srcAnchor = srcPic.getClientAnchor();
+
+                ClientAnchor newAnchor = copyAnchor(srcAnchor, dest.getWorkbook());
+
+                // Add picture, unless the workbook already has the same image
+                int picIndex = destStyles.picture(picData.getData(), picData.getPictureType());
+
+                // 🟢 NO resize() here — keeps original size + position exactly
+                destDrawing.createPicture(newAnchor, picIndex);
+            }
+        }
+    }
+
+    // the anchor exactly, so the picture keeps its position and size
+    static ClientAnchor copyAnchor(ClientAnchor srcAnchor, Workbook destWorkbook) {
+        ClientAnchor newAnchor = destWorkbook.getCreationHelper().createClientAnchor();
+
+        newAnchor.setAnchorType(srcAnchor.getAnchorType());
+        newAnchor.setCol1(srcAnchor.getCol1());
+        newAnchor.setRow1(srcAnchor.getRow1());
+        newAnchor.setCol2(srcAnchor.getCol2());
+        newAnchor.setRow2(srcAnchor.getRow2());
+        newAnchor.setDx1(srcAnchor.getDx1());
+        newAnchor.setDy1(srcAnchor.getDy1());
+        newAnchor.setDx2(srcAnchor.getDx2());
+        newAnchor.setDy2(srcAnchor.getDy2());
+        return newAnchor;
+    }
+}
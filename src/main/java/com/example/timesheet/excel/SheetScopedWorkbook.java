@@ -0,0 +1,355 @@
+package com.example.timesheet.excel;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.poi.ooxml.util.DocumentHelper;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.StreamHelper;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * One sheet of an .xlsx file, loaded without parsing the others. The file is read through
+ * a random-access zip over its channel: the other worksheets are never read, and the parts
+ * the sheet needs (styles, shared strings, theme, its own drawings) are handed to POI still
+ * compressed, through a temporary file. What POI gets is a workbook holding just that sheet,
+ * to change like any other.
+ * <p>
+ * {@link #writeTo} puts the file back together: the sheet's parts and the shared parts POI
+ * rewrote come from the changed workbook, every other entry is copied from the file without
+ * being inflated. The file must not change in between (hold its lock). That only works when
+ * the change doesn't add parts (e.g. a sheet's first drawing or comment) and when the styles
+ * and shared strings it rewrote only grew, so the other sheets' indexes into them still hold;
+ * {@link #canWriteBack} checks both, and otherwise the whole workbook has to be loaded.
+ */
+public final class SheetScopedWorkbook implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SheetScopedWorkbook.class);
+
+    private static final String SPREADSHEET_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String RELATIONSHIPS_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String PACKAGE_RELATIONSHIPS_NS = "http://schemas.openxmlformats.org/package/2006/relationships";
+    private static final String OFFICE_DOCUMENT = RELATIONSHIPS_NS + "/officeDocument";
+    private static final Set<String> SHARED_PARTS = Set.of(RELATIONSHIPS_NS + "/styles", RELATIONSHIPS_NS + "/sharedStrings");
+
+    private final Path source;
+    // parts that list every sheet, so they are kept from the file rather than from the one-sheet workbook
+    private final Set<String> wholeWorkbookParts;
+    // parts the other sheets refer into by index, which a change may only append to
+    private final Set<String> sharedParts;
+    // the one-sheet package POI reads from, and what it wrote back, once it has
+    private final Path trimmed;
+    private final XSSFWorkbook workbook;
+    private Path written;
+    private Boolean fits;
+
+    private SheetScopedWorkbook(Path source, Set<String> wholeWorkbookParts, Set<String> sharedParts,
+                                Path trimmed, XSSFWorkbook workbook) {
+        this.source = source;
+        this.wholeWorkbookParts = wholeWorkbookParts;
+        this.sharedParts = sharedParts;
+        this.trimmed = trimmed;
+        this.workbook = workbook;
+    }
+
+    /**
+     * @return the sheet (name matched ignoring case, like {@link XSSFWorkbook#getSheet}) on its
+     * own, or null when it can't be loaded that way: the sheet isn't there yet, or the workbook
+     * has defined names, which refer to sheets by position
+     */
+    public static SheetScopedWorkbook open(Path file, String sheetName) throws IOException {
+        try (ZipFile zip = new ZipFile(file.toFile())) {
+            String workbookPart = officeDocument(zip);
+            if (workbookPart == null) return unscoped(file, "no workbook part");
+            String relsPart = relsOf(workbookPart);
+            Document workbookXml = read(zip, workbookPart);
+            Document relsXml = read(zip, relsPart);
+            if (workbookXml == null || relsXml == null) return unscoped(file, "no workbook relationships");
+
+            if (elements(workbookXml, SPREADSHEET_NS, "definedName").size() > 0) {
+                return unscoped(file, "defined names");
+            }
+
+            Map<String, Element> relsById = new HashMap<>();
+            Set<String> sharedParts = new HashSet<>();
+            for (Element rel : elements(relsXml, PACKAGE_RELATIONSHIPS_NS, "Relationship")) {
+                relsById.put(rel.getAttribute("Id"), rel);
+                if (SHARED_PARTS.contains(rel.getAttribute("Type"))) {
+                    sharedParts.add(resolve(workbookPart, rel.getAttribute("Target")));
+                }
+            }
+
+            // drop every other sheet from the workbook, its relationship and its parts
+            boolean found = false;
+            Set<String> otherSheets = new HashSet<>();
+            for (Element sheet : elements(workbookXml, SPREADSHEET_NS, "sheet")) {
+                Element rel = relsById.get(sheet.getAttributeNS(RELATIONSHIPS_NS, "id"));
+                if (rel == null) return unscoped(file, "a sheet without a relationship");
+                if (!found && sheet.getAttribute("name").equalsIgnoreCase(sheetName)) {
+                    found = true;
+                    continue;
+                }
+                String part = resolve(workbookPart, rel.getAttribute("Target"));
+                otherSheets.add(part);
+                otherSheets.add(relsOf(part));
+                sheet.getParentNode().removeChild(sheet);
+                rel.getParentNode().removeChild(rel);
+            }
+            if (!found) return unscoped(file, "no sheet " + sheetName);
+            // the sheet left is the first and the active one
+            for (Element view : elements(workbookXml, SPREADSHEET_NS, "workbookView")) {
+                view.removeAttribute("activeTab");
+                view.removeAttribute("firstSheet");
+            }
+
+            // on disk rather than the heap: it holds everything but the other sheets
+            Path trimmed = Files.createTempFile("sheet-scoped", ".xlsx");
+            try {
+                try (ZipArchiveOutputStream out = new ZipArchiveOutputStream(trimmed.toFile())) {
+                    for (ZipArchiveEntry entry : Collections.list(zip.getEntries())) {
+                        String name = entry.getName();
+                        if (otherSheets.contains(name)) continue;
+                        if (name.equals(workbookPart)) {
+                            write(out, name, workbookXml);
+                        } else if (name.equals(relsPart)) {
+                            write(out, name, relsXml);
+                        } else {
+                            out.addRawArchiveEntry(entry, zip.getRawInputStream(entry));
+                        }
+                    }
+                }
+
+                // read-write only so it can be written out; closed by revert, so the file itself is never saved
+                XSSFWorkbook workbook = new XSSFWorkbook(OPCPackage.open(trimmed.toFile(), PackageAccess.READ_WRITE));
+                return new SheetScopedWorkbook(file,
+                        Set.of(workbookPart, relsPart, "[Content_Types].xml", "docProps/app.xml"),
+                        Set.copyOf(sharedParts), trimmed, workbook);
+            } catch (InvalidFormatException e) {
+                Files.deleteIfExists(trimmed);
+                throw new IOException("Unreadable workbook " + file, e);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(trimmed);
+                throw e;
+            }
+        }
+    }
+
+    // holds just the opened sheet
+    public XSSFWorkbook workbook() {
+        return workbook;
+    }
+
+    public XSSFSheet sheet() {
+        return workbook.getSheetAt(0);
+    }
+
+    /**
+     * Whether the changes can be merged back into the file: they add no parts, and the styles
+     * and shared strings hold everything they held, at the same positions. Writes the changed
+     * workbook (to a temporary file) to find out, so make every change first.
+     */
+    public boolean canWriteBack() throws IOException {
+        if (fits != null) return fits;
+
+        written = Files.createTempFile("sheet-scoped", ".xlsx");
+        try (OutputStream out = Files.newOutputStream(written)) {
+            workbook.write(out);
+        }
+        try (ZipFile changed = new ZipFile(written.toFile());
+             ZipFile original = new ZipFile(source.toFile())) {
+            fits = fits(original, changed);
+        }
+        return fits;
+    }
+
+    // the file as opened, with the changes to the sheet; out is left open
+    public void writeTo(OutputStream out) throws IOException {
+        if (!canWriteBack()) {
+            throw new IllegalStateException("Changes to sheet " + sheet().getSheetName()
+                    + " can't be merged back; load the whole workbook");
+        }
+
+        try (ZipFile changed = new ZipFile(written.toFile());
+             ZipFile original = new ZipFile(source.toFile());
+             ZipArchiveOutputStream zip = new ZipArchiveOutputStream(CloseShieldOutputStream.wrap(out))) {
+
+            // entries keep their order ([Content_Types].xml first) and their compressed bytes
+            for (ZipArchiveEntry entry : Collections.list(original.getEntries())) {
+                ZipArchiveEntry replacement = wholeWorkbookParts.contains(entry.getName())
+                        ? null : changed.getEntry(entry.getName());
+                if (replacement != null) {
+                    zip.addRawArchiveEntry(replacement, changed.getRawInputStream(replacement));
+                } else {
+                    zip.addRawArchiveEntry(entry, original.getRawInputStream(entry));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            // nothing is saved into the temporary package
+            workbook.getPackage().revert();
+        } finally {
+            Files.deleteIfExists(trimmed);
+            if (written != null) Files.deleteIfExists(written);
+        }
+    }
+
+    private boolean fits(ZipFile original, ZipFile changed) throws IOException {
+        for (ZipArchiveEntry entry : Collections.list(changed.getEntries())) {
+            if (original.getEntry(entry.getName()) == null) {
+                logger.debug("Changes to {} in {} add part {}", sheet().getSheetName(), source, entry.getName());
+                return false;
+            }
+        }
+        for (String part : sharedParts) {
+            Document before = read(original, part);
+            Document after = read(changed, part);
+            if (before != null && (after == null || !appendedTo(before.getDocumentElement(), after.getDocumentElement()))) {
+                logger.debug("Changes to {} in {} renumber {}", sheet().getSheetName(), source, part);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the shared strings start with the <si> they held; each list of the styles (<fonts>, <cellXfs>...)
+    // starts with the entries it held
+    private static boolean appendedTo(Element before, Element after) {
+        if ("sst".equals(before.getLocalName())) return startsWith(before, after);
+
+        List<Element> was = children(before);
+        List<Element> is = children(after);
+        if (is.size() < was.size()) return false;
+        for (int i = 0; i < was.size(); i++) {
+            if (!sameName(was.get(i), is.get(i)) || !startsWith(was.get(i), is.get(i))) return false;
+        }
+        return true;
+    }
+
+    private static boolean startsWith(Element list, Element grown) {
+        List<Element> was = children(list);
+        List<Element> is = children(grown);
+        if (is.size() < was.size()) return false;
+        for (int i = 0; i < was.size(); i++) {
+            if (!same(was.get(i), is.get(i))) return false;
+        }
+        return true;
+    }
+
+    private static boolean same(Element a, Element b) {
+        if (!sameName(a, b) || !attributes(a).equals(attributes(b))) return false;
+        List<Element> aChildren = children(a);
+        List<Element> bChildren = children(b);
+        if (aChildren.isEmpty() && bChildren.isEmpty()) {
+            return a.getTextContent().equals(b.getTextContent());
+        }
+        if (aChildren.size() != bChildren.size()) return false;
+        for (int i = 0; i < aChildren.size(); i++) {
+            if (!same(aChildren.get(i), bChildren.get(i))) return false;
+        }
+        return true;
+    }
+
+    private static boolean sameName(Element a, Element b) {
+        return Objects.equals(a.getNamespaceURI(), b.getNamespaceURI()) && Objects.equals(a.getLocalName(), b.getLocalName());
+    }
+
+    // by namespace and local name, so prefixes and namespace declarations don't count
+    private static Map<String, String> attributes(Element element) {
+        Map<String, String> attributes = new HashMap<>();
+        NamedNodeMap all = element.getAttributes();
+        for (int i = 0; i < all.getLength(); i++) {
+            Attr attr = (Attr) all.item(i);
+            if ("http://www.w3.org/2000/xmlns/".equals(attr.getNamespaceURI())) continue;
+            attributes.put(attr.getNamespaceURI() + " " + attr.getLocalName(), attr.getValue());
+        }
+        return attributes;
+    }
+
+    private static List<Element> children(Element element) {
+        List<Element> children = new ArrayList<>();
+        for (Node n = element.getFirstChild(); n != null; n = n.getNextSibling()) {
+            if (n instanceof Element child) children.add(child);
+        }
+        return children;
+    }
+
+    // null, after saying why at debug level
+    private static SheetScopedWorkbook unscoped(Path file, String reason) {
+        logger.debug("Loading all of {}: {}", file, reason);
+        return null;
+    }
+
+    // the workbook part named by the package relationships, e.g. xl/workbook.xml
+    private static String officeDocument(ZipFile zip) throws IOException {
+        Document rels = read(zip, "_rels/.rels");
+        if (rels == null) return null;
+        for (Element rel : elements(rels, PACKAGE_RELATIONSHIPS_NS, "Relationship")) {
+            if (OFFICE_DOCUMENT.equals(rel.getAttribute("Type"))) {
+                return resolve("", rel.getAttribute("Target"));
+            }
+        }
+        return null;
+    }
+
+    // xl/workbook.xml -> xl/_rels/workbook.xml.rels
+    private static String relsOf(String part) {
+        int slash = part.lastIndexOf('/');
+        return part.substring(0, slash + 1) + "_rels/" + part.substring(slash + 1) + ".rels";
+    }
+
+    // a relationship target, relative to the part that holds the relationship or absolute
+    private static String resolve(String fromPart, String target) {
+        return URI.create("/" + fromPart).resolve(target).getPath().substring(1);
+    }
+
+    private static Document read(ZipFile zip, String part) throws IOException {
+        ZipArchiveEntry entry = zip.getEntry(part);
+        if (entry == null) return null;
+        try (InputStream in = zip.getInputStream(entry)) {
+            return DocumentHelper.readDocument(in);
+        } catch (SAXException e) {
+            throw new IOException("Unreadable part " + part, e);
+        }
+    }
+
+    private static void write(ZipArchiveOutputStream out, String name, Document xml) throws IOException {
+        out.putArchiveEntry(new ZipArchiveEntry(name));
+        if (!StreamHelper.saveXmlInStream(xml, out)) {
+            throw new IOException("Could not write part " + name);
+        }
+        out.closeArchiveEntry();
+    }
+
+    // a copy, so elements can be removed while iterating
+    private static List<Element> elements(Document doc, String ns, String localName) {
+        NodeList nodes = doc.getElementsByTagNameNS(ns, localName);
+        List<Element> result = new ArrayList<>(nodes.getLength());
+        for (int i = 0; i < nodes.getLength(); i++) {
+            result.add((Element) nodes.item(i));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,340 @@
+package com.example.timesheet.excel;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageRelationship;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFDrawing;
+import org.apache.poi.xssf.usermodel.XSSFPicture;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.poi.xssf.usermodel.XSSFShape;
+import org.apache.xmlbeans.XmlException;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * An .xlsx file read with POI's event model, to copy some of its sheets out without loading
+ * the rest. Only the workbook-wide parts are parsed up front (the sheet list, styles and
+ * shared strings); a sheet's XML is streamed through SAX straight into the destination
+ * workbook, so no {@code XSSFRow}/{@code XSSFCell} is built for the source, and the sheets
+ * that aren't copied are never inflated. With an SXSSF destination, memory is bounded by the
+ * copied sheets' styles and pictures plus the destination's row window.
+ * <p>
+ * Copies what {@link SheetCopier} does for the sheets this application writes: column widths,
+ * row heights, merged regions, pictures, and cell values (as plain text for strings), error
+ * values and formulas with their styles. Comments, hyperlinks and ISO date cells
+ * ({@code t="d"}, which Excel doesn't write) are not copied.
+ */
+public final class StreamingSheetSource implements Closeable {
+
+    private static final String SPREADSHEET_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+
+    private final OPCPackage pkg;
+    private final XSSFReader reader;
+    private final StylesTable styles;
+    private final ReadOnlySharedStringsTable strings;
+
+    private StreamingSheetSource(OPCPackage pkg) throws IOException {
+        this.pkg = pkg;
+        try {
+            this.reader = new XSSFReader(pkg);
+            this.styles = reader.getStylesTable();
+            this.strings = new ReadOnlySharedStringsTable(pkg);
+        } catch (OpenXML4JException | SAXException e) {
+            throw new IOException("Unreadable workbook " + pkg, e);
+        }
+    }
+
+    public static StreamingSheetSource open(Path file) throws IOException {
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(file.toFile(), PackageAccess.READ);
+        } catch (InvalidFormatException e) {
+            throw new IOException("Unreadable workbook " + file, e);
+        }
+        try {
+            return new StreamingSheetSource(pkg);
+        } catch (IOException | RuntimeException e) {
+            pkg.revert();
+            throw e;
+        }
+    }
+
+    // a workbook already in memory, e.g. to read exactly the bytes that were checked
+    public static StreamingSheetSource open(InputStream in) throws IOException {
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(in);
+        } catch (InvalidFormatException e) {
+            throw new IOException("Unreadable workbook", e);
+        }
+        try {
+            return new StreamingSheetSource(pkg);
+        } catch (IOException | RuntimeException e) {
+            pkg.revert();
+            throw e;
+        }
+    }
+
+    // the names of all sheets, in workbook order; reads the sheet list only
+    public List<String> sheetNames() throws IOException {
+        List<String> names = new ArrayList<>();
+        XSSFReader.SheetIterator it = sheets();
+        while (it.hasNext()) {
+            // opening a sheet's stream doesn't inflate it until it is read
+            try (InputStream ignored = it.next()) {
+                names.add(it.getSheetName());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Copies the sheets whose names match into the registry's workbook, under the same names
+     * and in workbook order.
+     *
+     * @return the sheets created
+     */
+    public List<Sheet> copySheets(Predicate<String> names, StyleRegistry destStyles) throws IOException {
+        List<Sheet> copied = new ArrayList<>();
+        XSSFReader.SheetIterator it = sheets();
+        while (it.hasNext()) {
+            try (InputStream sheetXml = it.next()) {
+                String name = it.getSheetName();
+                if (!names.test(name)) continue;
+
+                Sheet dest = destStyles.workbook().createSheet(name);
+                copyPictures(it.getSheetPart(), dest, destStyles);
+                parse(sheetXml, new SheetHandler(dest, destStyles));
+                copied.add(dest);
+            }
+        }
+        return copied;
+    }
+
+    @Override
+    public void close() {
+        // read-only: nothing to save
+        pkg.revert();
+    }
+
+    private XSSFReader.SheetIterator sheets() throws IOException {
+        try {
+            return (XSSFReader.SheetIterator) reader.getSheetsData();
+        } catch (InvalidFormatException e) {
+            throw new IOException("Unreadable sheet list", e);
+        }
+    }
+
+    private static void parse(InputStream xml, DefaultHandler handler) throws IOException {
+        try {
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(handler);
+            parser.parse(new InputSource(xml));
+        } catch (SAXException | ParserConfigurationException e) {
+            throw new IOException("Unreadable sheet", e);
+        }
+    }
+
+    // the drawing parts are small, so they are read as objects; images go through the registry's dedup
+    private static void copyPictures(PackagePart sheetPart, Sheet dest, StyleRegistry destStyles) throws IOException {
+        Drawing<?> destDrawing = null;
+        try {
+            for (PackageRelationship rel : sheetPart.getRelationshipsByType(XSSFRelation.DRAWINGS.getRelation())) {
+                PackagePart drawingPart = sheetPart.getRelatedPart(rel);
+                for (XSSFShape shape : new XSSFDrawing(drawingPart).getShapes()) {
+                    if (!(shape instanceof XSSFPicture pic)) continue;
+
+                    String blipId = pic.getCTPicture().getBlipFill().getBlip().getEmbed();
+                    PackagePart image = drawingPart.getRelatedPart(drawingPart.getRelationship(blipId));
+                    int type = pictureType(image.getContentType());
+                    if (type < 0) continue;
+                    byte[] data;
+                    try (InputStream in = image.getInputStream()) {
+                        data = in.readAllBytes();
+                    }
+
+                    if (destDrawing == null) destDrawing = dest.createDrawingPatriarch();
+                    ClientAnchor anchor = SheetCopier.copyAnchor(pic.getClientAnchor(), dest.getWorkbook());
+                    destDrawing.createPicture(anchor, destStyles.picture(data, type));
+                }
+            }
+        } catch (InvalidFormatException | XmlException e) {
+            throw new IOException("Unreadable drawing", e);
+        }
+    }
+
+    private static int pictureType(String contentType) {
+        return switch (contentType) {
+            case "image/png" -> Workbook.PICTURE_TYPE_PNG;
+            case "image/jpeg" -> Workbook.PICTURE_TYPE_JPEG;
+            case "image/x-emf" -> Workbook.PICTURE_TYPE_EMF;
+            case "image/x-wmf" -> Workbook.PICTURE_TYPE_WMF;
+            case "image/pict" -> Workbook.PICTURE_TYPE_PICT;
+            case "image/dib", "image/bmp" -> Workbook.PICTURE_TYPE_DIB;
+            default -> -1;
+        };
+    }
+
+    /**
+     * Writes one sheet's XML into {@code dest} as it is read. Rows arrive in order, so an
+     * SXSSF destination can flush them behind; widths are set at the end, once the used
+     * columns are known.
+     */
+    private final class SheetHandler extends DefaultHandler {
+
+        private final Sheet dest;
+        private final StyleRegistry destStyles;
+        // destination style per source style index
+        private final Map<Integer, CellStyle> copiedStyles = new HashMap<>();
+        private final Map<Integer, Integer> widths = new HashMap<>();
+
+        private int defaultWidth = 8 * 256;
+        private short defaultHeight;
+        // one past the last column holding a cell
+        private int lastCol;
+
+        private Row row;
+        private int rowIndex = -1;
+
+        private int col;
+        private int styleIndex;
+        private String type;
+        private boolean inValue;
+        private boolean inInlineString;
+        private boolean inFormula;
+        private final StringBuilder value = new StringBuilder();
+        private final StringBuilder formula = new StringBuilder();
+
+        SheetHandler(Sheet dest, StyleRegistry destStyles) {
+            this.dest = dest;
+            this.destStyles = destStyles;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attrs) {
+            if (!SPREADSHEET_NS.equals(uri)) return;
+
+            switch (localName) {
+                case "sheetFormatPr" -> {
+                    // what XSSFSheet reports for columns and rows that don't set their own
+                    String base = attrs.getValue("baseColWidth");
+                    if (base != null) defaultWidth = Integer.parseInt(base) * 256;
+                    String height = attrs.getValue("defaultRowHeight");
+                    if (height != null) defaultHeight = (short) (Double.parseDouble(height) * 20);
+                }
+                case "col" -> {
+                    String width = attrs.getValue("width");
+                    if (width == null) return;
+                    int w = (int) (Double.parseDouble(width) * 256);
+                    int max = Integer.parseInt(attrs.getValue("max"));
+                    for (int c = Integer.parseInt(attrs.getValue("min")) - 1; c < max; c++) {
+                        widths.put(c, w);
+                    }
+                }
+                case "row" -> {
+                    String r = attrs.getValue("r");
+                    rowIndex = r == null ? rowIndex + 1 : Integer.parseInt(r) - 1;
+                    col = -1;
+                    row = dest.createRow(rowIndex);
+                    String ht = attrs.getValue("ht");
+                    row.setHeight(ht == null ? defaultHeight : (short) (Double.parseDouble(ht) * 20));
+                }
+                case "c" -> {
+                    String ref = attrs.getValue("r");
+                    col = ref == null ? col + 1 : new CellReference(ref).getCol();
+                    String s = attrs.getValue("s");
+                    styleIndex = s == null ? 0 : Integer.parseInt(s);
+                    type = attrs.getValue("t");
+                    value.setLength(0);
+                    formula.setLength(0);
+                }
+                case "v" -> inValue = true;
+                case "is" -> inInlineString = true;
+                case "t" -> inValue = inInlineString;
+                case "f" -> inFormula = true;
+                case "mergeCell" ->
+                    // the source's regions can't overlap, so the overlap check is skipped
+                        dest.addMergedRegionUnsafe(CellRangeAddress.valueOf(attrs.getValue("ref")));
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue) value.append(ch, start, length);
+            if (inFormula) formula.append(ch, start, length);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if (!SPREADSHEET_NS.equals(uri)) return;
+
+            switch (localName) {
+                case "v", "t" -> inValue = false;
+                case "is" -> inInlineString = false;
+                case "f" -> inFormula = false;
+                case "c" -> writeCell();
+                case "worksheet" -> {
+                    for (int c = 0; c < lastCol; c++) {
+                        dest.setColumnWidth(c, widths.getOrDefault(c, defaultWidth));
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        private void writeCell() {
+            Cell cell = row.createCell(col);
+            cell.setCellStyle(copiedStyles.computeIfAbsent(styleIndex,
+                    i -> destStyles.copyOf(styles.getStyleAt(i), styles::getFontAt)));
+            lastCol = Math.max(lastCol, col + 1);
+
+            // shared formulas only carry their text on the first cell; the others keep their value
+            if (!formula.isEmpty()) {
+                cell.setCellFormula(formula.toString());
+                return;
+            }
+            if (value.isEmpty() && !"inlineStr".equals(type)) {
+                cell.setBlank();
+                return;
+            }
+
+            String v = value.toString();
+            switch (type == null ? "n" : type) {
+                case "s" -> cell.setCellValue(strings.getItemAt(Integer.parseInt(v)).getString());
+                case "str", "inlineStr" -> cell.setCellValue(v);
+                case "b" -> cell.setCellValue("1".equals(v));
+                case "n" -> cell.setCellValue(Double.parseDouble(v));
+                case "e" -> cell.setCellErrorValue(FormulaError.forString(v).getCode());
+                default -> {
+                }
+            }
+        }
+    }
+}
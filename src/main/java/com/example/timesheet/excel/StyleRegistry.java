@@ -0,0 +1,159 @@
+package com.example.timesheet.excel;
+
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Workbook-scoped cache of cell styles and fonts keyed by their attributes, and of
+ * pictures keyed by a hash of their content. Every identical style, font or picture is
+ * created once per workbook, no matter how many cells, rows or copied sheets ask for it.
+ * Styles already present in a loaded workbook are indexed up front so re-rendering a
+ * sheet reuses them.
+ * <p>
+ * Not thread-safe, same as the workbook it wraps.
+ */
+public class StyleRegistry {
+
+    private final Workbook wb;
+    private final Map<FontSpec, Font> fonts = new HashMap<>();
+    private final Map<StyleSpec, CellStyle> styles = new HashMap<>();
+    private final Map<Integer, StyleSpec> specsByIndex = new HashMap<>();
+    // SHA-256 of the picture data -> picture index, indexed on first use
+    private Map<ByteBuffer, Integer> pictures;
+
+    public StyleRegistry(Workbook wb) {
+        this.wb = wb;
+
+        for (int i = 0; i < wb.getNumberOfFonts(); i++) {
+            Font font = wb.getFontAt(i);
+            fonts.putIfAbsent(FontSpec.of(font), font);
+        }
+        for (int i = 0; i < wb.getNumCellStyles(); i++) {
+            CellStyle style = wb.getCellStyleAt(i);
+            StyleSpec spec = StyleSpec.of(style, wb);
+            styles.putIfAbsent(spec, style);
+            specsByIndex.put(i, spec);
+        }
+    }
+
+    public Workbook workbook() {
+        return wb;
+    }
+
+    public Font font(FontSpec spec) {
+        return fonts.computeIfAbsent(spec, s -> {
+            Font font = wb.createFont();
+            s.applyTo(font);
+            return font;
+        });
+    }
+
+    public CellStyle style(StyleSpec spec) {
+        CellStyle style = styles.get(spec);
+        if (style == null) {
+            style = wb.createCellStyle();
+            if (spec.font() != null) style.setFont(font(spec.font()));
+            spec.applyTo(style);
+            styles.put(spec, style);
+            specsByIndex.put((int) style.getIndex(), spec);
+        }
+        return style;
+    }
+
+    /**
+     * Index of a picture with this content for {@code Drawing.createPicture}. The data is
+     * added to the workbook only if no picture with the same bytes is there yet, so sheets
+     * that show the same image share one picture part.
+     */
+    public int picture(byte[] data, int pictureType) {
+        if (pictures == null) {
+            pictures = new HashMap<>();
+            List<? extends PictureData> existing = wb.getAllPictures();
+            for (int i = 0; i < existing.size(); i++) {
+                pictures.putIfAbsent(contentHash(existing.get(i).getData()), i);
+            }
+        }
+        return pictures.computeIfAbsent(contentHash(data), h -> wb.addPicture(data, pictureType));
+    }
+
+    private static ByteBuffer contentHash(byte[] data) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JRE has SHA-256
+        }
+    }
+
+    // attributes of a style that belongs to this workbook
+    public StyleSpec specOf(CellStyle style) {
+        return specsByIndex.computeIfAbsent((int) style.getIndex(), i -> StyleSpec.of(style, wb));
+    }
+
+    // same style as base with some attributes changed, e.g. derive(style, s -> s.fill(grey))
+    public CellStyle derive(CellStyle base, UnaryOperator<StyleSpec> change) {
+        StyleSpec spec = base == null ? StyleSpec.DEFAULT : specOf(base);
+        return style(change.apply(spec));
+    }
+
+    // equivalent of a style from another workbook, e.g. when copying sheets
+    public CellStyle copyOf(CellStyle foreign, Workbook source) {
+        return copyOf(foreign, source::getFontAt);
+    }
+
+    // same, for a style whose fonts are looked up by index (e.g. read with the event model)
+    public CellStyle copyOf(CellStyle foreign, IntFunction<? extends Font> sourceFonts) {
+        if (foreign == null) return wb.getCellStyleAt(0);
+        return style(StyleSpec.of(foreign, sourceFonts));
+    }
+
+    /**
+     * Draws a border around the region, like the RegionUtil.setBorderX calls, but resolves
+     * each edge cell's new style through the registry instead of scanning every style in
+     * the workbook. Missing rows and cells are created. Border colours are left as they are.
+     */
+    public void outline(Sheet sheet, CellRangeAddress region, BorderStyle border) {
+        outline(sheet, region, border, null);
+    }
+
+    // same as above, also setting the border colour like RegionUtil.setXBorderColor
+    public void outline(Sheet sheet, CellRangeAddress region, BorderStyle border, Short color) {
+        for (int r = region.getFirstRow(); r <= region.getLastRow(); r++) {
+            Row row = sheet.getRow(r);
+            if (row == null) row = sheet.createRow(r);
+
+            for (int c = region.getFirstColumn(); c <= region.getLastColumn(); c++) {
+                boolean top = r == region.getFirstRow();
+                boolean bottom = r == region.getLastRow();
+                boolean left = c == region.getFirstColumn();
+                boolean right = c == region.getLastColumn();
+                if (!(top || bottom || left || right)) continue;
+
+                Cell cell = row.getCell(c);
+                if (cell == null) cell = row.createCell(c);
+
+                cell.setCellStyle(derive(cell.getCellStyle(), s -> {
+                    if (top) s = s.borderTop(border);
+                    if (bottom) s = s.borderBottom(border);
+                    if (left) s = s.borderLeft(border);
+                    if (right) s = s.borderRight(border);
+                    if (color != null) {
+                        if (top) s = s.topBorderColor(color);
+                        if (bottom) s = s.bottomBorderColor(color);
+                        if (left) s = s.leftBorderColor(color);
+                        if (right) s = s.rightBorderColor(color);
+                    }
+                    return s;
+                }));
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.timesheet.excel;
+
+import org.apache.poi.ss.usermodel.*;
+
+import java.util.Objects;
+import java.util.function.IntFunction;
+
+/**
+ * Value describing a cell style by its attributes (alignment, borders, fill, font).
+ * Only indexed colours are tracked, which is all the generated sheets use.
+ * Instances are immutable; every modifier returns a new spec.
+ */
+public final class StyleSpec {
+
+    private static final short BLACK = IndexedColors.BLACK.getIndex();
+    private static final short AUTOMATIC = IndexedColors.AUTOMATIC.getIndex();
+
+    /** What {@code Workbook.createCellStyle()} gives you. */
+    public static final StyleSpec DEFAULT = new StyleSpec(null, HorizontalAlignment.GENERAL, VerticalAlignment.BOTTOM,
+            BorderStyle.NONE, BorderStyle.NONE, BorderStyle.NONE, BorderStyle.NONE,
+            BLACK, BLACK, BLACK, BLACK, AUTOMATIC, FillPatternType.NO_FILL, false, (short) 0);
+
+    private final FontSpec font; // null = workbook default font
+    private final HorizontalAlignment align;
+    private final VerticalAlignment valign;
+    private final BorderStyle top, bottom, left, right;
+    private final short topColor, bottomColor, leftColor, rightColor;
+    private final short fillColor;
+    private final FillPatternType fillPattern;
+    private final boolean wrap;
+    private final short dataFormat;
+
+    private StyleSpec(FontSpec font, HorizontalAlignment align, VerticalAlignment valign,
+                      BorderStyle top, BorderStyle bottom, BorderStyle left, BorderStyle right,
+                      short topColor, short bottomColor, short leftColor, short rightColor,
+                      short fillColor, FillPatternType fillPattern, boolean wrap, short dataFormat) {
+        this.font = font;
+        this.align = align;
+        this.valign = valign;
+        this.top = top;
+        this.bottom = bottom;
+        this.left = left;
+        this.right = right;
+        this.topColor = topColor;
+        this.bottomColor = bottomColor;
+        this.leftColor = leftColor;
+        this.rightColor = rightColor;
+        this.fillColor = fillColor;
+        this.fillPattern = fillPattern;
+        this.wrap = wrap;
+        this.dataFormat = dataFormat;
+    }
+
+    // reads the attributes of an existing style; font index 0 is the workbook default font
+    public static StyleSpec of(CellStyle style, Workbook wb) {
+        return of(style, wb::getFontAt);
+    }
+
+    // same, with the fonts looked up by index, e.g. in a StylesTable read without its workbook
+    public static StyleSpec of(CellStyle style, IntFunction<? extends Font> fonts) {
+        int fontIndex = style.getFontIndex();
+        FontSpec font = fontIndex == 0 ? null : FontSpec.of(fonts.apply(fontIndex));
+        return new StyleSpec(font, style.getAlignment(), style.getVerticalAlignment(),
+                style.getBorderTop(), style.getBorderBottom(), style.getBorderLeft(), style.getBorderRight(),
+                style.getTopBorderColor(), style.getBottomBorderColor(), style.getLeftBorderColor(), style.getRightBorderColor(),
+                style.getFillForegroundColor(), style.getFillPattern(), style.getWrapText(), style.getDataFormat());
+    }
+
+    public StyleSpec font(FontSpec font) {
+        return new StyleSpec(font, align, valign, top, bottom, left, right,
+                topColor, bottomColor, leftColor, rightColor, fillColor, fillPattern, wrap, dataFormat);
+    }
+
+    public StyleSpec align(HorizontalAlignment align) {
+        return new StyleSpec(font, align, valign, top, bottom, left, right,
+                topColor, bottomColor, leftColor, rightColor, fillColor, fillPattern, wrap, dataFormat);
+    }
+
+    public StyleSpec valign(VerticalAlignment valign) {
+        return new StyleSpec(font, align, valign, top, bottom, left, right,
+                topColor, bottomColor, leftColor, rightColor, fillColor, fillPattern, wrap, dataFormat);
+    }
+
+    public StyleSpec center() {
+        return align(HorizontalAlignment.CENTER).valign(VerticalAlignment.CENTER);
+    }
+
+    public StyleSpec border(BorderStyle border) {
+        return new StyleSpec(font, align, valign, border, border, border, border,
+                topColor, bottomColor, leftColor, rightColor, fillColor, fillPattern, wrap, dataFormat);
+    }
+
+    public StyleSpec borderTop(BorderStyle border) {
+        return new StyleSpec(font, align, valign, border, bottom, left, right,
+                topColor, bottomColor, leftColor, rightColor, fillColor, fillPattern, wrap, dataFormat);
+    }
+
+    public StyleSpec borderBottom(BorderStyle border) {
+        return new StyleSpec(font, align, valign, top, border, left, right,
+                topColor, bottomColor, leftColor, rightColor, fillColor, fillPattern, wrap, dataFormat);
+    }
+
+    public StyleSpec borderLeft(BorderStyle border) {
+        return new StyleSpec(font, align, valign, top, bottom, border, right,
+                topColor, bottomColor, leftColor, rightColor, fillColor, fillPattern, wrap, dataFormat);
+    }
+
+    public StyleSpec borderRight(BorderStyle border) {
+        return new StyleSpec(font, align, valign, top, bottom, left, border,
+                topColor, bottomColor, leftColor, rightColor, fillColor, fillPattern, wrap, dataFormat);
+    }
+
+    public StyleSpec borderColor(short color) {
+        return new StyleSpec(font, align, valign, top, bottom, left, right,
+                color, color, color, color, fillColor, fillPattern, wrap, dataFormat);
+    }
+
+    public StyleSpec topBorderColor(short color) {
+        return new StyleSpec(font, align, valign, top, bottom, left, right,
+                color, bottomColor, leftColor, rightColor, fillColor, fillPattern, wrap, dataFormat);
+    }
+
+    public StyleSpec bottomBorderColor(short color) {
+        return new StyleSpec(font, align, valign, top, bottom, left, right,
+                topColor, color, leftColor, rightColor, fillColor, fillPattern, wrap, dataFormat);
+    }
+
+    public StyleSpec leftBorderColor(short color) {
+        return new StyleSpec(font, align, valign, top, bottom, left, right,
+                topColor, bottomColor, color, rightColor, fillColor, fillPattern, wrap, dataFormat);
+    }
+
+    public StyleSpec rightBorderColor(short color) {
+        return new StyleSpec(font, align, valign, top, bottom, left, right,
+                topColor, bottomColor, leftColor, color, fillColor, fillPattern, wrap, dataFormat);
+    }
+
+    // solid fill in the given colour
+    public StyleSpec fill(short color) {
+        return new StyleSpec(font, align, valign, top, bottom, left, right,
+                topColor, bottomColor, leftColor, rightColor, color, FillPatternType.SOLID_FOREGROUND, wrap, dataFormat);
+    }
+
+    FontSpec font() {
+        return font;
+    }
+
+    // copies the attributes onto a freshly created style; the font is resolved by the registry
+    void applyTo(CellStyle style) {
+        if (align != HorizontalAlignment.GENERAL) style.setAlignment(align);
+        if (valign != VerticalAlignment.BOTTOM) style.setVerticalAlignment(valign);
+        if (top != BorderStyle.NONE) style.setBorderTop(top);
+        if (bottom != BorderStyle.NONE) style.setBorderBottom(bottom);
+        if (left != BorderStyle.NONE) style.setBorderLeft(left);
+        if (right != BorderStyle.NONE) style.setBorderRight(right);
+        if (topColor != BLACK) style.setTopBorderColor(topColor);
+        if (bottomColor != BLACK) style.setBottomBorderColor(bottomColor);
+        if (leftColor != BLACK) style.setLeftBorderColor(leftColor);
+        if (rightColor != BLACK) style.setRightBorderColor(rightColor);
+        if (fillColor != AUTOMATIC) style.setFillForegroundColor(fillColor);
+        if (fillPattern != FillPatternType.NO_FILL) style.setFillPattern(fillPattern);
+        if (wrap) style.setWrapText(true);
+        if (dataFormat != 0) style.setDataFormat(dataFormat);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof StyleSpec s)) return false;
+        return topColor == s.topColor && bottomColor == s.bottomColor && leftColor == s.leftColor
+                && rightColor == s.rightColor && fillColor == s.fillColor && wrap == s.wrap
+                && dataFormat == s.dataFormat && align == s.align && valign == s.valign
+                && top == s.top && bottom == s.bottom && left == s.left && right == s.right
+                && fillPattern == s.fillPattern && Objects.equals(font, s.font);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(font, align, valign, top, bottom, left, right,
+                topColor, bottomColor, leftColor, rightColor, fillColor, fillPattern, wrap, dataFormat);
+    }
+}
@@ -9,6 +9,8 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.util.concurrent.RejectedExecutionException;
+
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
@@ -57,7 +59,27 @@ public class GlobalExceptionHandler {
     }
 
 
-    // 3️⃣ Handle all other exceptions
+    // 3️⃣ Job queue full: tell the client to back off
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ApiError> handleRejected(
+            RejectedExecutionException ex,
+            HttpServletRequest request) {
+
+        ApiError error = new ApiError(
+                "Too Many Requests",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header("Retry-After", "10")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(error);
+    }
+
+
+    // 4️⃣ Handle all other exceptions
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handleGeneralException(
             Exception ex,
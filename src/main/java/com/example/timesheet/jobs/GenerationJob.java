@@ -0,0 +1,113 @@
+package com.example.timesheet.jobs;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * One asynchronous workbook generation. The status fields are what the poll endpoint
+ * returns; the finished workbook is kept in a file until the job expires. A download pins
+ * the file ({@link #pin}), so an expiry during the transfer waits for the next sweep.
+ */
+public class GenerationJob {
+
+    public enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+    private final String id;
+    private final String kind;
+    private final String fileName;
+    private final String contentType;
+    private final Instant createdAt = Instant.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Path result;
+    private volatile String error;
+    private volatile Instant finishedAt;
+
+    // downloads in progress, and whether the result is gone; guarded by this
+    private int downloads;
+    private boolean evicted;
+
+    GenerationJob(String id, String kind, String fileName, String contentType) {
+        this.id = id;
+        this.kind = kind;
+        this.fileName = fileName;
+        this.contentType = contentType;
+    }
+
+    void running() {
+        status = Status.RUNNING;
+    }
+
+    void done(Path file) {
+        result = file;
+        finishedAt = Instant.now();
+        status = Status.DONE;
+    }
+
+    void failed(String message) {
+        error = message;
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+    }
+
+    /**
+     * Keeps the result file while it is being sent; {@link #unpin()} when done.
+     *
+     * @return false when the job has already been evicted and its file is gone
+     */
+    public synchronized boolean pin() {
+        if (evicted) return false;
+        downloads++;
+        return true;
+    }
+
+    public synchronized void unpin() {
+        downloads--;
+    }
+
+    // true when nothing is downloading the result, which may then be deleted; pins fail from now on
+    synchronized boolean evict() {
+        if (downloads > 0) return false;
+        evicted = true;
+        return true;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    @JsonIgnore
+    public Path getResult() {
+        return result;
+    }
+}
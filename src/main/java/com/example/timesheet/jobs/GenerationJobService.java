@@ -0,0 +1,121 @@
+package com.example.timesheet.jobs;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+
+/**
+ * Runs workbook generations off the request thread. Jobs go to the bounded job pool;
+ * when its queue is full the submit fails with {@link RejectedExecutionException}
+ * (429 Too Many Requests) instead of piling up work. Finished jobs are kept for
+ * {@code timesheet.jobs.retention-minutes} so clients can poll and download them; their
+ * results are written to files under {@code timesheet.jobs.dir} rather than kept on the heap.
+ */
+@Service
+public class GenerationJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationJobService.class);
+
+    // the generation itself, writing the result to out, e.g. out -> service.assembleYearWorkbook(year, out)
+    @FunctionalInterface
+    public interface Work {
+        void writeTo(OutputStream out) throws Exception;
+    }
+
+    private static final String RESULT_SUFFIX = ".result";
+
+    private final ExecutorService jobExecutor;
+    private final Duration retention;
+    private final Path resultDir;
+    private final Map<String, GenerationJob> jobs = new ConcurrentHashMap<>();
+
+    public GenerationJobService(@Qualifier("jobExecutor") ExecutorService jobExecutor,
+                                @Value("${timesheet.jobs.retention-minutes:30}") long retentionMinutes,
+                                @Value("${timesheet.jobs.dir:timesheet-jobs}") String dir) throws IOException {
+        this.jobExecutor = jobExecutor;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.resultDir = Files.createDirectories(Paths.get(dir));
+
+        // results of a previous run: their jobs are gone with it
+        try (Stream<Path> files = Files.list(resultDir)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(RESULT_SUFFIX)).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    public GenerationJob submit(String kind, String fileName, String contentType, Work work) {
+        evictExpired();
+
+        GenerationJob job = new GenerationJob(UUID.randomUUID().toString(), kind, fileName, contentType);
+        jobs.put(job.getId(), job);
+        try {
+            jobExecutor.execute(() -> run(job, work));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new RejectedExecutionException("Too many generation jobs queued, try again later", e);
+        }
+        return job;
+    }
+
+    public Optional<GenerationJob> find(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    private void run(GenerationJob job, Work work) {
+        job.running();
+        Path file = resultDir.resolve(job.getId() + RESULT_SUFFIX);
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                work.writeTo(out);
+            }
+            job.done(file);
+        } catch (IllegalArgumentException e) {
+            // invalid input found while generating, e.g. a Saturday marked as leave
+            deleteResult(file);
+            job.failed(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Generation job {} ({}) failed", job.getId(), job.getKind(), e);
+            deleteResult(file);
+            job.failed(e.getMessage());
+        }
+    }
+
+    // finished jobs past the retention, with their results; cheap enough to do on every submit.
+    // A job whose result is being downloaded is left for a later submit.
+    private void evictExpired() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(j -> {
+            if (j.getFinishedAt() == null || !j.getFinishedAt().isBefore(cutoff)) return false;
+            if (!j.evict()) return false;
+            if (j.getResult() != null) deleteResult(j.getResult());
+            return true;
+        });
+    }
+
+    private static void deleteResult(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete job result {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.timesheet.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Timers and sizes for the workbook generation pipeline, published through Actuator
+ * ({@code /actuator/prometheus}). All meters are tagged with the workbook kind
+ * (timesheet, attendance, team); phase timers also carry the phase, and publish a
+ * percentile histogram so latency percentiles can be computed and alerted on.
+ * <pre>
+ *   timesheet_generation_phase_seconds{workbook,phase}
+ *   timesheet_generation_bytes{workbook}     size of the returned workbook/ZIP
+ *   timesheet_generation_sheets{workbook}    sheets in the workbook that was written or returned
+ *   timesheet_generation_unchanged_total{workbook}  requests that changed nothing, so nothing was written
+ *   timesheet_generation_cached_total{workbook}     downloads served from the response cache
+ * </pre>
+ */
+@Component
+public class GenerationMetrics {
+
+    public static final String TIMESHEET = "timesheet";
+    public static final String ATTENDANCE = "attendance";
+    public static final String TEAM = "team";
+
+    // Phases don't overlap, so per request they add up to (roughly) the service time
+    public enum Phase {
+        LOOKUP,        // employee lookup
+        DAY_STATUS,    // daily rows / statuses and totals
+        LOAD,          // reading an existing workbook or part from disk
+        RENDER,        // laying out cells and styles
+        AUTOSIZE,      // column widths
+        WRITE,         // writing the workbook/part to disk
+        COPY,          // copying sheets into the returned workbook
+        SERIALIZE;     // writing the returned workbook/ZIP to bytes
+
+        private final String tag = name().toLowerCase().replace('_', '-');
+    }
+
+    private final MeterRegistry registry;
+    // registered once per workbook kind (timers once per phase), not looked up on every call
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public GenerationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void stop(Timer.Sample sample, String workbook, Phase phase) {
+        sample.stop(meters(workbook).phases.computeIfAbsent(phase, p -> Timer.builder("timesheet.generation.phase")
+                .description("Time spent per generation phase")
+                .tag("workbook", workbook)
+                .tag("phase", p.tag)
+                .publishPercentileHistogram()
+                .register(registry)));
+    }
+
+    public void bytes(String workbook, long bytes) {
+        meters(workbook).bytes.record(bytes);
+    }
+
+    public void sheets(String workbook, int sheets) {
+        meters(workbook).sheets.record(sheets);
+    }
+
+    public void unchanged(String workbook) {
+        meters(workbook).unchanged.increment();
+    }
+
+    public void cached(String workbook) {
+        meters(workbook).cached.increment();
+    }
+
+    private Meters meters(String workbook) {
+        return meters.computeIfAbsent(workbook, this::register);
+    }
+
+    private Meters register(String workbook) {
+        DistributionSummary bytes = DistributionSummary.builder("timesheet.generation.bytes")
+                .description("Size of the generated download")
+                .baseUnit("bytes")
+                .tag("workbook", workbook)
+                .register(registry);
+        DistributionSummary sheets = DistributionSummary.builder("timesheet.generation.sheets")
+                .description("Sheets in the generated workbook")
+                .tag("workbook", workbook)
+                .register(registry);
+        Counter unchanged = Counter.builder("timesheet.generation.unchanged")
+                .description("Requests whose content was already on disk, so no workbook was written")
+                .tag("workbook", workbook)
+                .register(registry);
+        Counter cached = Counter.builder("timesheet.generation.cached")
+                .description("Downloads served from the response cache instead of being generated")
+                .tag("workbook", workbook)
+                .register(registry);
+        return new Meters(new ConcurrentHashMap<>(), bytes, sheets, unchanged, cached);
+    }
+
+    private record Meters(Map<Phase, Timer> phases, DistributionSummary bytes, DistributionSummary sheets,
+                          Counter unchanged, Counter cached) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.timesheet.repository;
+
+/**
+ * Published by {@link EmployeeDirectory} after an employee is saved, for anything
+ * that keeps data derived from the employee record.
+ */
+public record EmployeeChanged(String employeeId) {
+}
@@ -0,0 +1,119 @@
+package com.example.timesheet.repository;
+
+import com.example.timesheet.entity.Employee;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Employee lookups by employeeId, served from a bounded LRU cache in front of
+ * {@link EmployeeRepository}. Saves go through here (write-through), so a cached employee
+ * is never older than the last save made by this application. Every save publishes
+ * {@link EmployeeChanged}.
+ * <p>
+ * The cache holds immutable snapshots, never the entities: every lookup gets its own
+ * detached copy, so a caller that changes it (or an entity JPA still manages after a save)
+ * can't change what other requests see.
+ */
+@Component
+public class EmployeeDirectory {
+
+    private final EmployeeRepository repo;
+    private final ApplicationEventPublisher events;
+    private final int capacity;
+    private final LinkedHashMap<String, Snapshot> cache;
+    // bumped on every save, so a lookup that raced a save doesn't cache what it read before it
+    private long generation;
+
+    public EmployeeDirectory(EmployeeRepository repo,
+                             ApplicationEventPublisher events,
+                             @Value("${timesheet.employees.cache-size:1024}") int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("timesheet.employees.cache-size must be at least 1");
+        }
+        this.repo = repo;
+        this.events = events;
+        this.capacity = capacity;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Snapshot> eldest) {
+                return size() > EmployeeDirectory.this.capacity;
+            }
+        };
+    }
+
+    public Optional<Employee> find(String employeeId) {
+        long seen;
+        synchronized (cache) {
+            Snapshot cached = cache.get(employeeId);
+            if (cached != null) return Optional.of(cached.toEmployee());
+            seen = generation;
+        }
+
+        // misses are not cached: an unknown id keeps going to the database until it is saved
+        Optional<Employee> loaded = repo.findByEmployeeId(employeeId);
+        loaded.ifPresent(emp -> {
+            synchronized (cache) {
+                if (generation == seen) cache.put(employeeId, Snapshot.of(emp));
+            }
+        });
+        return loaded;
+    }
+
+    // the whole table, from the database; warms the cache when it fits
+    public List<Employee> findAll() {
+        long seen;
+        synchronized (cache) {
+            seen = generation;
+        }
+
+        List<Employee> all = repo.findAll();
+        if (all.size() <= capacity) {
+            synchronized (cache) {
+                if (generation == seen) all.forEach(emp -> cache.put(emp.getEmployeeId(), Snapshot.of(emp)));
+            }
+        }
+        return all;
+    }
+
+    public Employee save(Employee emp) {
+        Employee saved = repo.save(emp);
+        remember(List.of(saved));
+        return saved;
+    }
+
+    public List<Employee> saveAll(List<Employee> employees) {
+        List<Employee> saved = repo.saveAll(employees);
+        remember(saved);
+        return saved;
+    }
+
+    private void remember(List<Employee> saved) {
+        synchronized (cache) {
+            generation++;
+            for (Employee emp : saved) {
+                cache.put(emp.getEmployeeId(), Snapshot.of(emp));
+            }
+        }
+        saved.forEach(emp -> events.publishEvent(new EmployeeChanged(emp.getEmployeeId())));
+    }
+
+    // the fields of an employee as they were read or saved
+    private record Snapshot(Long id, String employeeName, String employeeId, String email, String joiningDate) {
+
+        static Snapshot of(Employee emp) {
+            return new Snapshot(emp.getId(), emp.getEmployeeName(), emp.getEmployeeId(), emp.getEmail(), emp.getJoiningDate());
+        }
+
+        Employee toEmployee() {
+            Employee emp = new Employee(employeeName, employeeId, email, joiningDate);
+            emp.setId(id);
+            return emp;
+        }
+    }
+}
@@ -7,6 +7,6 @@ import java.util.Optional;
 
 public interface EmployeeRepository extends JpaRepository<Employee,Long> {
 
-    Optional<Object> findByEmployeeId(String employeeId);
+    Optional<Employee> findByEmployeeId(String employeeId);
 
 }
@@ -1,22 +1,38 @@
 package com.example.timesheet.service;
 
+import com.example.timesheet.calendar.DaySet;
+import com.example.timesheet.calendar.MonthCalendar;
+import com.example.timesheet.dto.AttendanceRangeRequest;
 import com.example.timesheet.dto.AttendanceRequest;
-import com.example.timesheet.dto.TimesheetRequest;
 import com.example.timesheet.entity.Employee;
-import com.example.timesheet.repository.EmployeeRepository;
+import com.example.timesheet.excel.ColumnWidths;
+import com.example.timesheet.excel.FontSpec;
+import com.example.timesheet.excel.SheetScopedWorkbook;
+import com.example.timesheet.excel.StreamingSheetSource;
+import com.example.timesheet.excel.StyleRegistry;
+import com.example.timesheet.excel.StyleSpec;
+import com.example.timesheet.metrics.GenerationMetrics;
+import com.example.timesheet.metrics.GenerationMetrics.Phase;
+import com.example.timesheet.repository.EmployeeDirectory;
+import com.example.timesheet.storage.BlockFingerprints;
+import com.example.timesheet.storage.WorkbookLocks;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.io.function.IOConsumer;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
-import org.apache.poi.ss.util.RegionUtil;
-import org.apache.poi.xssf.usermodel.XSSFCellStyle;
-import org.apache.poi.xssf.usermodel.XSSFFont;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.*;
 import java.time.format.TextStyle;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class AttendanceService {
@@ -30,56 +46,156 @@ public class AttendanceService {
     private static final int DAILY_START_ROW = 11; // day 1 -> row 11, day 31 -> row 41
     // columns per month block
     private static final int COLS_PER_MONTH = 3; // start, start+1 = label (merged), start+2 = value
-    private final EmployeeRepository employeeRepository;
-
-    String empName;
-    File file;
-
-
-
-    public AttendanceService(EmployeeRepository employeeRepository) {
-        this.employeeRepository = employeeRepository;
+    // font of the label, value and day cells (see createStyles)
+    private static final FontSpec VALUE_FONT = FontSpec.DEFAULT.bold();
+    private final EmployeeDirectory employees;
+    private final WorkbookLocks workbookLocks;
+    private final RenderLimiter renderLimiter;
+    private final BlockFingerprints fingerprints;
+    private final GenerationMetrics metrics;
+    private final boolean autoSizeColumns;
+
+    public AttendanceService(EmployeeDirectory employees,
+                             WorkbookLocks workbookLocks,
+                             RenderLimiter renderLimiter,
+                             BlockFingerprints fingerprints,
+                             GenerationMetrics metrics,
+                             @Value("${timesheet.excel.autosize-columns:false}") boolean autoSizeColumns) {
+        this.employees = employees;
+        this.workbookLocks = workbookLocks;
+        this.renderLimiter = renderLimiter;
+        this.fingerprints = fingerprints;
+        this.metrics = metrics;
+        this.autoSizeColumns = autoSizeColumns;
     }
 
     /**
      * Writes or updates the month block for given employee in the workbook attendance-<year>.xlsx
-     * Returns workbook bytes for immediate download.
      *
-     * @return
+     * @return the workbook file and sheet that were written, for {@link #extractSheetsForEmployee(AttendanceSheet, OutputStream)}
      */
-    public byte[] generateAttendance(AttendanceRequest req) throws Exception {
-        // find employee (assuming repository has findByEmployeeId returning Optional<Employee>)
-        Employee emp = (Employee) employeeRepository.findByEmployeeId(req.employeeId)
-                .orElseThrow(() -> new IllegalArgumentException("Employee not found: " + req.employeeId));
+    public AttendanceSheet generateAttendance(AttendanceRequest req) throws Exception {
+        return generateMonths(req.employeeId, req.year, List.of(req));
+    }
 
-        // parse provided date lists into sets
-        Set<LocalDate> leaveSet = toDateSet(req.leaveDates);
-        Set<LocalDate> phSet = toDateSet(req.publicHolidays);
-        Set<LocalDate> weekOffSet = toDateSet(req.weekOffDates);
-        Set<LocalDate> compOffSet = toDateSet(req.compOff);
+    /**
+     * Writes or updates several month blocks of one employee (up to the whole year) with a
+     * single load and write of attendance-<year>.xlsx.
+     */
+    public AttendanceSheet generateAttendanceRange(AttendanceRangeRequest range) throws Exception {
+        return generateMonths(range.employeeId, range.year, range.toRequests());
+    }
+
+    // all requests are for the same employee and year
+    private AttendanceSheet generateMonths(String employeeId, int year, List<AttendanceRequest> months) throws Exception {
+        // find employee (cached by employeeId)
+        Timer.Sample lookup = metrics.start();
+        Employee emp = employees.find(employeeId)
+                .orElseThrow(() -> new IllegalArgumentException("Employee not found: " + employeeId));
+        metrics.stop(lookup, GenerationMetrics.ATTENDANCE, Phase.LOOKUP);
+
+        // Prepare daily statuses of every month (before taking the workbook lock)
+        Timer.Sample dayStatus = metrics.start();
+        List<MonthBlock> blocks = new ArrayList<>(months.size());
+        for (AttendanceRequest req : months) {
+            blocks.add(computeBlock(req, emp));
+        }
+        metrics.stop(dayStatus, GenerationMetrics.ATTENDANCE, Phase.DAY_STATUS);
 
-        YearMonth ym = YearMonth.of(req.year, req.month);
-        LocalDate start = ym.atDay(1);
-        LocalDate end = ym.atEndOfMonth();
 
         // workbook filename per year
-        String fileName = String.format("attendance-%d.xlsx", req.year);
-        file = new File(fileName);
+        String fileName = String.format("attendance-%d.xlsx", year);
+        File file = new File(fileName);
 
-        XSSFWorkbook wb;
+        // sheet name = employee first name (or full) sanitized
+        String empName = (emp.getEmployeeName() == null ? "Employee" : emp.getEmployeeName().split(" ")[0]);
+        String sheetName = sanitizeSheetName(empName);
+        if (sheetName.length() > 31) sheetName = sheetName.substring(0, 31);
+
+        // read-modify-write of the shared year file: one request per file at a time, in arrival order,
+        // across every replica. The render permit is taken after the file lock, so requests queued
+        // on a file don't hold one.
+        try (WorkbookLocks.Held held = workbookLocks.lock(file.toPath())) {
+            // only blocks whose content differs from what the file holds are written;
+            // a repeat submission neither loads nor saves the workbook
+            Map<String, String> written = fingerprints.current(file.toPath());
+            List<MonthBlock> changed = new ArrayList<>();
+            for (MonthBlock block : blocks) {
+                if (!block.fingerprint().equals(written.get(blockKey(sheetName, block)))) {
+                    changed.add(block);
+                }
+            }
+            if (changed.isEmpty()) {
+                metrics.unchanged(GenerationMetrics.ATTENDANCE);
+                return new AttendanceSheet(file, sheetName);
+            }
+
+            try (RenderLimiter.Permit permit = renderLimiter.acquire()) {
+                updateWorkbook(file, sheetName, emp, changed);
+            }
+            for (MonthBlock block : changed) {
+                written.put(blockKey(sheetName, block), block.fingerprint());
+            }
+            fingerprints.written(file.toPath(), written);
+        }
+        return new AttendanceSheet(file, sheetName);
+    }
 
+    // loads the year workbook, rewrites the given blocks of the employee's sheet and saves it
+    private void updateWorkbook(File file, String sheetName, Employee emp, List<MonthBlock> blocks) throws IOException {
+
+        // an employee's existing sheet is loaded on its own: the other employees' sheets are not parsed
         if (file.exists()) {
+            Timer.Sample load = metrics.start();
+            SheetScopedWorkbook scoped = SheetScopedWorkbook.open(file.toPath(), sheetName);
+            if (scoped != null) {
+                metrics.stop(load, GenerationMetrics.ATTENDANCE, Phase.LOAD);
+                try (scoped) {
+                    writeBlocks(scoped.workbook(), sheetName, emp, blocks);
+
+                    Timer.Sample write = metrics.start();
+                    boolean merged = scoped.canWriteBack();
+                    if (merged) saveWorkbook(file, scoped::writeTo);
+                    metrics.stop(write, GenerationMetrics.ATTENDANCE, Phase.WRITE);
+                    if (merged) return;
+                }
+                // the change added parts, or reordered styles the other sheets use: redone on the whole workbook
+                load = metrics.start();
+            }
+
+            // a new sheet: the workbook, its sheet list and content types all change
+            XSSFWorkbook wb;
             try (FileInputStream fis = new FileInputStream(file)) {
                 wb = new XSSFWorkbook(fis);
             }
-        } else {
-            wb = new XSSFWorkbook();
+            metrics.stop(load, GenerationMetrics.ATTENDANCE, Phase.LOAD);
+            try (wb) {
+                writeBlocks(wb, sheetName, emp, blocks);
+                saveWhole(file, wb);
+            }
+            return;
         }
 
-        // sheet name = employee first name (or full) sanitized
-         empName = (emp.getEmployeeName() == null ? "Employee" : emp.getEmployeeName().split(" ")[0]);
-        String sheetName = sanitizeSheetName(empName);
-        if (sheetName.length() > 31) sheetName = sheetName.substring(0, 31);
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            writeBlocks(wb, sheetName, emp, blocks);
+            saveWhole(file, wb);
+        }
+    }
+
+    private void saveWhole(File file, XSSFWorkbook wb) throws IOException {
+        Timer.Sample write = metrics.start();
+        saveWorkbook(file, wb::write);
+        metrics.stop(write, GenerationMetrics.ATTENDANCE, Phase.WRITE);
+    }
+
+    // the blocks, into the employee's sheet of wb (created when it isn't there)
+    private void writeBlocks(XSSFWorkbook wb, String sheetName, Employee emp, List<MonthBlock> blocks) {
+        int maxDays = 0;
+        for (MonthBlock block : blocks) {
+            maxDays = Math.max(maxDays, block.cal().length());
+        }
+
+        Timer.Sample render = metrics.start();
 
         Sheet sheet = wb.getSheet(sheetName);
         if (sheet == null) {
@@ -87,141 +203,160 @@ public class AttendanceService {
             // set default row heights to make space
 
 
-            for (int i = 1; i < DAILY_START_ROW + ym.lengthOfMonth(); i++) {
+            for (int i = 1; i < DAILY_START_ROW + maxDays; i++) {
                 Row rr = sheet.getRow(i);
                 if (rr == null) rr = sheet.createRow(i);
                 //rr.setHeightInPoints(18f);
             }
         }
 
-        // create styles (fresh per invocation is fine)
-        Map<String, CellStyle> styles = createStyles(wb);
-
-        // compute start column for month (0-based)
-        int monthIndex = req.month - 1;
-        if (monthIndex < 0 || monthIndex > 11) {
-            throw new IllegalArgumentException("month must be 1..12");
-        }
-
-        int startCol = (monthIndex * COLS_PER_MONTH) + 1;
-        int labelCol2 = startCol + 1;
-        int valueCol = startCol + 2;
+        // styles already in the workbook are reused, so repeated runs don't grow styles.xml
+        StyleRegistry registry = new StyleRegistry(wb);
+        Map<String, CellStyle> styles = createStyles(registry);
 
-        // remove any merged regions or old data in this month block (rows HEADER_ROW .. DAILY_START_ROW+30)
-        clearMonthBlock(sheet, HEADER_ROW, (DAILY_START_ROW + ym.lengthOfMonth()) - 1, startCol, valueCol);
+        // widths of the written months' columns, from what is written into them
+        ColumnWidths widths = new ColumnWidths();
 
-        // write month header (merged across the 3 columns)
-        Row header = getOrCreateRow(sheet, HEADER_ROW);
-        Cell monthCell = header.createCell(startCol);
-        ym = YearMonth.of(req.year, req.month);
-        monthCell.setCellValue(ym.getMonth().getDisplayName(TextStyle.FULL, Locale.ENGLISH) + "-" + String.valueOf(req.year).substring(2));
-        monthCell.setCellStyle(styles.get("monthHeader"));
-        sheet.addMergedRegion(new CellRangeAddress(HEADER_ROW, HEADER_ROW, startCol, valueCol));
-        // ensure style across merged cells
-        applyStyleToRegionCells(sheet, HEADER_ROW, HEADER_ROW, startCol, valueCol, styles.get("monthHeader"));
+        for (MonthBlock block : blocks) {
+            writeBlock(sheet, registry, styles, emp, block, widths);
+        }
+        metrics.stop(render, GenerationMetrics.ATTENDANCE, Phase.RENDER);
+
+        Timer.Sample autosize = metrics.start();
+        if (autoSizeColumns) {
+            // auto-size a few columns for the whole sheet (only up to used columns)
+            int usedCols = COLS_PER_MONTH * 12;
+            for (int c = 0; c < usedCols; c++) {
+                sheet.autoSizeColumn(c);
+            }
+        } else {
+            // other months keep the widths they were given when they were written
+            widths.applyTo(sheet);
+        }
+        metrics.stop(autosize, GenerationMetrics.ATTENDANCE, Phase.AUTOSIZE);
+    }
 
-        // EID row (label merged across labelCol1..labelCol2, value in valueCol)
-        writeLabelValueInBlock(sheet, EID_ROW, startCol, labelCol2, valueCol, "EID", String.valueOf(emp.getEmployeeId()), styles);
+    // a month block of one sheet
+    private static String blockKey(String sheetName, MonthBlock block) {
+        return sheetName + "/" + block.req().month;
+    }
 
-        // Employee name row
-        writeLabelValueInBlock(sheet, NAME_ROW, startCol, labelCol2, valueCol, "Employee Name", emp.getEmployeeName(), styles);
+    // daily statuses and counts of one month (index = day of month)
+    private MonthBlock computeBlock(AttendanceRequest req, Employee emp) {
+        // parse provided date lists into sets
+        DaySet leaveSet = toDaySet(req, req.leaveDates, "leaveDates");
+        DaySet phSet = toDaySet(req, req.publicHolidays, "publicHolidays");
+        DaySet weekOffSet = toDaySet(req, req.weekOffDates, "weekOffDates");
+        DaySet compOffSet = toDaySet(req, req.compOff, "compOff");
+        // none of these may fall on a Saturday off
+        DaySet notOnSaturdayOff = phSet.union(leaveSet).union(compOffSet);
 
-        // Prepare daily statuses for this month
-        YearMonth yearMonth = YearMonth.of(req.year, req.month);
-        int daysInMonth = yearMonth.lengthOfMonth();
+        // day types and labels come precomputed for the month and Saturday policy
+        MonthCalendar cal = MonthCalendar.of(req.year, req.month, req.saturdayWeekoff);
+        int daysInMonth = cal.length();
 
 
-        // compute daily statuses and counts
-        List<DayStatus> dayStatusList = new ArrayList<>();
+        // compute daily statuses and counts (index = day of month)
+        String[] statuses = new String[daysInMonth + 1];
 
         int sumP = 0, sumL = 0, sumPH = 0, sumWO = 0, sumCO = 0;
-        for (LocalDate d = start; !d.isAfter(end); d = d.plusDays(1)) {
-            boolean isSunday = d.getDayOfWeek() == DayOfWeek.SUNDAY;
-            boolean isSaturday = d.getDayOfWeek() == DayOfWeek.SATURDAY;
-            int saturdayNumber = 0;
-            int dom = d.getDayOfMonth();
-            if (isSaturday) saturdayNumber = ((dom - 1) / 7) + 1;
-
-            if ((req.saturdayWeekoff == TimesheetRequest.WEEKOFF_1ST_3RD || req.saturdayWeekoff == TimesheetRequest.WEEKOFF_2ND_4TH || req.saturdayWeekoff == TimesheetRequest.ALL_WEEKOFF) && isSaturday) {
-                //int saturdayNumber = ((dom - 1) / 7) + 1;
-                if ((req.saturdayWeekoff == TimesheetRequest.WEEKOFF_1ST_3RD && (saturdayNumber == 1 || saturdayNumber == 3)) ||
-                        (req.saturdayWeekoff == TimesheetRequest.WEEKOFF_2ND_4TH && (saturdayNumber == 2 || saturdayNumber == 4)) ||
-                        (req.saturdayWeekoff == TimesheetRequest.ALL_WEEKOFF)) {
-
-                    if (phSet.contains(d) || leaveSet.contains(d) || compOffSet.contains(d)) {
-                        throw new IllegalArgumentException("Saturday " + d + " cannot be marked as leave or holidays or compOff");
-                    }
-                }
-
+        for (int day = 1; day <= daysInMonth; day++) {
+            if (cal.isSaturdayOff(day) && notOnSaturdayOff.contains(day)) {
+                throw new IllegalArgumentException("Saturday " + cal.date(day) + " cannot be marked as leave or holidays or compOff");
             }
 
             String status;
-            if (phSet.contains(d)) {
+            if (phSet.contains(day)) {
                 status = "PH";
                 sumPH++;
-            } else if (leaveSet.contains(d)) {
+            } else if (leaveSet.contains(day)) {
                 status = "L";
                 sumL++;
-            } else if (isSunday) {
-                if (weekOffSet.contains(d)) {
+            } else if (cal.isWeekOff(day)) {
+                // Sunday, or a Saturday off under the request's policy
+                if (weekOffSet.contains(day)) {
                     status = "P";
                     sumP++;
                     sumWO++;
                 } else {
                     status = "WO";
                 }
-            } else if (req.saturdayWeekoff == AttendanceRequest.WEEKOFF_1ST_3RD && isSaturday && (saturdayNumber == 1 || saturdayNumber == 3)) {
-                if (weekOffSet.contains(d)) {
-                    status = "P";
-                    sumP++;
-                    sumWO++;
-                } else {
-                    status = "WO";
-                }
-            } else if (req.saturdayWeekoff == AttendanceRequest.WEEKOFF_2ND_4TH && isSaturday && (saturdayNumber == 2 || saturdayNumber == 4)) {
-                if (weekOffSet.contains(d)) {
-                    status = "P";
-                    sumP++;
-                    sumWO++;
-                } else {
-                    status = "WO";
-                }
-            } else if (req.saturdayWeekoff == AttendanceRequest.ALL_WEEKOFF && isSaturday) {
-                if (weekOffSet.contains(d)) {
-                    status = "P";
-                    sumP++;
-                    sumWO++;
-                } else {
-                    status = "WO";
-                }
-            } else if (compOffSet.contains(d)) {
+            } else if (compOffSet.contains(day)) {
                 status = "CO";
                 sumCO++;
             } else {
                 status = "P";
                 sumP++;
             }
-            dayStatusList.add(new DayStatus(d, status, d.getDayOfWeek()));
+            statuses[day] = status;
+        }
+
+        // everything writeBlock puts in the block, in canonical form
+        StringJoiner fingerprint = new StringJoiner("\u0000")
+                .add(emp.getEmployeeId()).add(String.valueOf(emp.getEmployeeName()))
+                .add(String.valueOf(req.year)).add(String.valueOf(req.month))
+                .add(req.remarks == null ? "" : req.remarks)
+                .add(sumP + "," + sumL + "," + sumPH + "," + sumWO + "," + sumCO);
+        for (int day = 1; day <= daysInMonth; day++) {
+            fingerprint.add(statuses[day]);
+        }
+        return new MonthBlock(req, cal, statuses, sumP, sumL, sumPH, sumWO, sumCO, fingerprint.toString());
+    }
+
+    private void writeBlock(Sheet sheet, StyleRegistry registry, Map<String, CellStyle> styles,
+                            Employee emp, MonthBlock block, ColumnWidths widths) {
+        AttendanceRequest req = block.req();
+        MonthCalendar cal = block.cal();
+        int daysInMonth = cal.length();
+        String[] statuses = block.statuses();
+
+        // compute start column for month (0-based)
+        int monthIndex = req.month - 1;
+        if (monthIndex < 0 || monthIndex > 11) {
+            throw new IllegalArgumentException("month must be 1..12");
         }
 
+        int startCol = (monthIndex * COLS_PER_MONTH) + 1;
+        int labelCol2 = startCol + 1;
+        int valueCol = startCol + 2;
+
+        // remove any merged regions or old data in this month block (rows HEADER_ROW .. DAILY_START_ROW+30)
+        clearMonthBlock(sheet, HEADER_ROW, (DAILY_START_ROW + daysInMonth) - 1, startCol, valueCol);
+
+        // write month header (merged across the 3 columns)
+        Row header = getOrCreateRow(sheet, HEADER_ROW);
+        Cell monthCell = header.createCell(startCol);
+        monthCell.setCellValue(Month.of(req.month).getDisplayName(TextStyle.FULL, Locale.ENGLISH) + "-" + String.valueOf(req.year).substring(2));
+        monthCell.setCellStyle(styles.get("monthHeader"));
+        // the block was just cleared, so its merges can't overlap anything: skip POI's check against every region
+        sheet.addMergedRegionUnsafe(new CellRangeAddress(HEADER_ROW, HEADER_ROW, startCol, valueCol));
+        // ensure style across merged cells
+        applyStyleToRegionCells(sheet, HEADER_ROW, HEADER_ROW, startCol, valueCol, styles.get("monthHeader"));
+
+        // EID row (label merged across labelCol1..labelCol2, value in valueCol)
+        writeLabelValueInBlock(sheet, EID_ROW, startCol, labelCol2, valueCol, "EID", String.valueOf(emp.getEmployeeId()), styles, widths);
+
+        // Employee name row
+        writeLabelValueInBlock(sheet, NAME_ROW, startCol, labelCol2, valueCol, "Employee Name", emp.getEmployeeName(), styles, widths);
 
         // Write summary rows
-        writeLabelValueInBlock(sheet, SUMMARY_START_ROW, startCol, labelCol2, valueCol, "Days Worked", String.valueOf(sumP), styles);
-        writeLabelValueInBlock(sheet, SUMMARY_START_ROW + 1, startCol, labelCol2, valueCol, "Total Working Days", String.valueOf((sumP + sumL + sumCO)-sumWO), styles);
-        writeLabelValueInBlock(sheet, SUMMARY_START_ROW + 2, startCol, labelCol2, valueCol, "Leaves", String.valueOf(sumL), styles);
-        writeLabelValueInBlock(sheet, SUMMARY_START_ROW + 3, startCol, labelCol2, valueCol, "WO Worked", String.valueOf(sumWO), styles);
-        writeLabelValueInBlock(sheet, SUMMARY_START_ROW + 4, startCol, labelCol2, valueCol, "Comp Off", String.valueOf(sumCO), styles);
-        writeLabelValueInBlock(sheet, SUMMARY_START_ROW + 5, startCol, labelCol2, valueCol, "PH", String.valueOf(sumPH), styles);
+        writeLabelValueInBlock(sheet, SUMMARY_START_ROW, startCol, labelCol2, valueCol, "Days Worked", String.valueOf(block.sumP()), styles, widths);
+        writeLabelValueInBlock(sheet, SUMMARY_START_ROW + 1, startCol, labelCol2, valueCol, "Total Working Days", String.valueOf((block.sumP() + block.sumL() + block.sumCO())-block.sumWO()), styles, widths);
+        writeLabelValueInBlock(sheet, SUMMARY_START_ROW + 2, startCol, labelCol2, valueCol, "Leaves", String.valueOf(block.sumL()), styles, widths);
+        writeLabelValueInBlock(sheet, SUMMARY_START_ROW + 3, startCol, labelCol2, valueCol, "WO Worked", String.valueOf(block.sumWO()), styles, widths);
+        writeLabelValueInBlock(sheet, SUMMARY_START_ROW + 4, startCol, labelCol2, valueCol, "Comp Off", String.valueOf(block.sumCO()), styles, widths);
+        writeLabelValueInBlock(sheet, SUMMARY_START_ROW + 5, startCol, labelCol2, valueCol, "PH", String.valueOf(block.sumPH()), styles, widths);
 
         // Remarks
-        writeLabelValueInBlock(sheet, REMARKS_ROW, startCol, labelCol2, valueCol, "Remarks", req.remarks == null ? "" : req.remarks, styles);
+        writeLabelValueInBlock(sheet, REMARKS_ROW, startCol, labelCol2, valueCol, "Remarks", req.remarks == null ? "" : req.remarks, styles, widths);
 
         // Daily rows: use DAILY_START_ROW  DAILY_START_ROW + 30 (1..31)
-        for (int i = 0; i < ym.lengthOfMonth(); i++) {
+        for (int i = 0; i < daysInMonth; i++) {
+            int day = i + 1;
             int writeRow = DAILY_START_ROW + i;
             Row dr = getOrCreateRow(sheet, writeRow);
 
-            // label merged cell shows date + day (for days within the month), otherwise blank
+            // label merged cell shows date + day
             Cell lbl = dr.createCell(startCol);
             lbl.setCellStyle(styles.get("dayCell"));
             //sheet.addMergedRegion(new CellRangeAddress(writeRow, writeRow, startCol, labelCol2));
@@ -233,67 +368,38 @@ public class AttendanceService {
             Cell val = dr.createCell(valueCol);
             val.setCellStyle(styles.get("statusCell"));
 
-            if (i < daysInMonth) {
-                DayStatus ds = dayStatusList.get(i);
-                String dateLabel = String.format("%02d-%s", ds.date.getDayOfMonth(),
-                        ds.date.getMonth().getDisplayName(TextStyle.SHORT_STANDALONE, Locale.ENGLISH));
-                lbl.setCellValue(dateLabel);
-                // put date and day on separate lines (Excel will show newline if wrap is enabled)
-                partner.setCellValue(ds.dayOfWeek.getDisplayName(TextStyle.SHORT_STANDALONE, Locale.ENGLISH));
-                val.setCellValue(ds.status);
-            } else {
-                // empty for days beyond month length
-                lbl.setCellValue("");
-                val.setCellValue("");
-            }
+            lbl.setCellValue(cal.dateLabel(day));
+            // put date and day on separate lines (Excel will show newline if wrap is enabled)
+            partner.setCellValue(cal.dayName(day));
+            val.setCellValue(statuses[day]);
+
+            widths.fit(startCol, cal.dateLabel(day), VALUE_FONT)
+                    .fit(labelCol2, cal.dayName(day), VALUE_FONT)
+                    .fit(valueCol, statuses[day]);
         }
 
         // Apply outer border for this month block (optional: double border)
-        int bottomRow = DAILY_START_ROW + ym.lengthOfMonth() - 1;
+        int bottomRow = DAILY_START_ROW + daysInMonth - 1;
         CellRangeAddress outer = new CellRangeAddress(HEADER_ROW, bottomRow, startCol, valueCol);
-        RegionUtil.setBorderTop(BorderStyle.THICK, outer, sheet);
-        RegionUtil.setBorderBottom(BorderStyle.THICK, outer, sheet);
-        RegionUtil.setBorderLeft(BorderStyle.THICK, outer, sheet);
-        RegionUtil.setBorderRight(BorderStyle.THICK, outer, sheet);
-        RegionUtil.setTopBorderColor(IndexedColors.BLACK.getIndex(), outer, sheet);
-        RegionUtil.setBottomBorderColor(IndexedColors.BLACK.getIndex(), outer, sheet);
-        RegionUtil.setLeftBorderColor(IndexedColors.BLACK.getIndex(), outer, sheet);
-        RegionUtil.setRightBorderColor(IndexedColors.BLACK.getIndex(), outer, sheet);
-
-        // auto-size a few columns for the whole sheet (only up to used columns)
-        int usedCols = COLS_PER_MONTH * 12;
-        for (int c = 0; c < usedCols; c++) {
-            sheet.autoSizeColumn(c);
-        }
-
-
-        // reorder methods for better structuring
-        // (e.g. utility methods at the end)
-        // (also, add blank lines between groups of methods)
-
-        // buildTimesheetXLSX
-        // getOrCreateRow
-        // writeLabelValueInBlock
-        // createStyles
-        // applyStyleToRegionCells
-        // save workbook back to disk
-        try (FileOutputStream fos = new FileOutputStream(file)) {
-            wb.write(fos);
-        }
+        registry.outline(sheet, outer, BorderStyle.THICK, IndexedColors.BLACK.getIndex());
+    }
 
-          // MUST CLOSE
+    // ---------------------- helper utilities ----------------------
 
-// ---- Return workbook bytes if needed ----
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try (baos) {
-            wb.write(baos);
+    // written next to the target and moved into place, so readers outside the lock never see a partial file
+    private void saveWorkbook(File file, IOConsumer<OutputStream> writer) throws IOException {
+        Path target = file.toPath().toAbsolutePath();
+        Path tmp = Files.createTempFile(target.getParent(), file.getName(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                writer.accept(out);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
         }
-        wb.close();
-        return baos.toByteArray();
     }
 
-    // ---------------------- helper utilities ----------------------
-
     private Row getOrCreateRow(Sheet sheet, int r) {
         Row row = sheet.getRow(r);
         if (row == null) row = sheet.createRow(r);
@@ -307,7 +413,8 @@ public class AttendanceService {
                                         int valueCol,
                                         String label,
                                         String value,
-                                        Map<String, CellStyle> styles) {
+                                        Map<String, CellStyle> styles,
+                                        ColumnWidths widths) {
         Row row = getOrCreateRow(sheet, rowIndex);
 
         // label (merged labelCol1..labelCol2)
@@ -316,7 +423,8 @@ public class AttendanceService {
         labelCell.setCellValue(label);
         labelCell.setCellStyle(styles.get("label"));
 
-        sheet.addMergedRegion(new CellRangeAddress(rowIndex, rowIndex, labelCol1, labelCol2));
+        // inside the cleared month block, see writeBlock
+        sheet.addMergedRegionUnsafe(new CellRangeAddress(rowIndex, rowIndex, labelCol1, labelCol2));
 
         // ensure partner has style too
         Cell partner = row.getCell(labelCol2);
@@ -328,28 +436,25 @@ public class AttendanceService {
         if (v == null) v = row.createCell(valueCol);
         v.setCellValue(value);
         v.setCellStyle(styles.get("value"));
+
+        // the label is merged, so only the value counts towards the column width
+        widths.fit(valueCol, value, VALUE_FONT);
     }
 
     // remove merged regions and clear cell values in the rectangle block
     private void clearMonthBlock(Sheet sheet, int rowStart, int rowEnd, int colStart, int colEnd) {
-        // remove merged regions that intersect block
-        List<CellRangeAddress> toRemove = new ArrayList<>();
-        for (int i = 0; i < sheet.getNumMergedRegions(); i++) {
-            CellRangeAddress cra = sheet.getMergedRegion(i);
+        // remove merged regions that intersect block: one pass to find them, one batch removal
+        List<CellRangeAddress> regions = sheet.getMergedRegions();
+        List<Integer> toRemove = new ArrayList<>();
+        for (int i = 0; i < regions.size(); i++) {
+            CellRangeAddress cra = regions.get(i);
             if (!(cra.getLastRow() < rowStart || cra.getFirstRow() > rowEnd
                     || cra.getLastColumn() < colStart || cra.getFirstColumn() > colEnd)) {
-                toRemove.add(cra);
+                toRemove.add(i);
             }
         }
-        // physically remove by index (work backwards)
-        for (CellRangeAddress cra : toRemove) {
-            // find index
-            for (int i = 0; i < sheet.getNumMergedRegions(); i++) {
-                if (sheet.getMergedRegion(i).formatAsString().equals(cra.formatAsString())) {
-                    sheet.removeMergedRegion(i);
-                    break;
-                }
-            }
+        if (!toRemove.isEmpty()) {
+            sheet.removeMergedRegions(toRemove);
         }
 
         // clear content & styles in region
@@ -377,9 +482,11 @@ public class AttendanceService {
         }
     }
 
-    private Set<LocalDate> toDateSet(List<String> list) {
-        if (list == null) return Collections.emptySet();
-        return list.stream().map(LocalDate::parse).collect(Collectors.toCollection(LinkedHashSet::new));
+    // same checks and messages as the controller's RequestValidation, for callers that skip it
+    private DaySet toDaySet(AttendanceRequest req, List<String> list, String fieldName) {
+        return DaySet.parse(list, req.year, req.month,
+                d -> new IllegalArgumentException(fieldName + " contains invalid date format: " + d),
+                d -> new IllegalArgumentException(fieldName + " contains date not matching the request year/month: " + d));
     }
 
     private String sanitizeSheetName(String name) {
@@ -388,221 +495,109 @@ public class AttendanceService {
     }
 
     // create commonly used styles
-    private Map<String, CellStyle> createStyles(Workbook wb) {
+    private Map<String, CellStyle> createStyles(StyleRegistry registry) {
         Map<String, CellStyle> s = new HashMap<>();
 
+        // thin box shared by the label, value and daily cells
+        StyleSpec thinBox = StyleSpec.DEFAULT.center().border(BorderStyle.THIN);
+
         // monthHeader
-        Font mh = wb.createFont();
-        mh.setBold(true);
-        mh.setFontHeightInPoints((short) 12);
-        CellStyle monthHeader = wb.createCellStyle();
-        monthHeader.setFont(mh);
-        monthHeader.setAlignment(HorizontalAlignment.CENTER);
-        monthHeader.setVerticalAlignment(VerticalAlignment.CENTER);
-        monthHeader.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-        monthHeader.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        monthHeader.setBorderTop(BorderStyle.THICK);
-        monthHeader.setBorderBottom(BorderStyle.THICK);
-        monthHeader.setBorderLeft(BorderStyle.THICK);
-        monthHeader.setBorderRight(BorderStyle.THICK);
-        s.put("monthHeader", monthHeader);
+        FontSpec mh = FontSpec.DEFAULT.bold().heightInPoints((short) 12);
+        s.put("monthHeader", registry.style(StyleSpec.DEFAULT
+                .font(mh)
+                .center()
+                .fill(IndexedColors.GREY_25_PERCENT.getIndex())
+                .border(BorderStyle.THICK)));
 
         // label style (left two columns)
-        Font lf = wb.createFont();
-        lf.setBold(true);
-        CellStyle label = wb.createCellStyle();
-        label.setFont(lf);
-        label.setAlignment(HorizontalAlignment.CENTER);
-        label.setVerticalAlignment(VerticalAlignment.CENTER);
-        //label.setWrapText(true);
-        label.setBorderTop(BorderStyle.THIN);
-        label.setBorderBottom(BorderStyle.THIN);
-        label.setBorderLeft(BorderStyle.THIN);
-        label.setBorderRight(BorderStyle.THIN);
-        s.put("label", label);
+        s.put("label", registry.style(thinBox.font(FontSpec.DEFAULT.bold())));
 
         // value style (right column)
-        CellStyle value = wb.createCellStyle();
-        Font valueFont = wb.createFont();
-        valueFont.setBold(true);
-        value.setFont(valueFont);
-        value.setAlignment(HorizontalAlignment.CENTER);
-        value.setVerticalAlignment(VerticalAlignment.CENTER);
-        //value.setWrapText(true);
-        value.setBorderTop(BorderStyle.THIN);
-        value.setBorderBottom(BorderStyle.THIN);
-        value.setBorderLeft(BorderStyle.THIN);
-        value.setBorderRight(BorderStyle.THIN);
-        s.put("value", value);
+        s.put("value", registry.style(thinBox.font(FontSpec.DEFAULT.bold())));
 
         // dayCell (label for daily rows)
-        CellStyle dayCell = wb.createCellStyle();
-        Font dayFont = wb.createFont();
-        dayFont.setBold(true);
-        dayCell.setFont(dayFont);
-        dayCell.setAlignment(HorizontalAlignment.CENTER);
-        dayCell.setVerticalAlignment(VerticalAlignment.CENTER);
-        //dayCell.setWrapText(true);
-        dayCell.setBorderTop(BorderStyle.THIN);
-        dayCell.setBorderBottom(BorderStyle.THIN);
-        dayCell.setBorderLeft(BorderStyle.THIN);
-        dayCell.setBorderRight(BorderStyle.THIN);
-        s.put("dayCell", dayCell);
+        s.put("dayCell", registry.style(thinBox.font(FontSpec.DEFAULT.bold())));
 
         // status cell for daily value
-        CellStyle statusCell = wb.createCellStyle();
-        statusCell.setAlignment(HorizontalAlignment.CENTER);
-        statusCell.setVerticalAlignment(VerticalAlignment.CENTER);
-        statusCell.setBorderTop(BorderStyle.THIN);
-        statusCell.setBorderBottom(BorderStyle.THIN);
-        statusCell.setBorderLeft(BorderStyle.THIN);
-        statusCell.setBorderRight(BorderStyle.THIN);
-        s.put("statusCell", statusCell);
+        s.put("statusCell", registry.style(thinBox));
 
         return s;
     }
 
-    public byte[] extractSheetsForEmployee() throws Exception {
-
-
-
-        XSSFWorkbook sourceWorkbook;
-
-        try (FileInputStream fis = new FileInputStream(file)) {
-                sourceWorkbook = new XSSFWorkbook(fis);
-            }
-
-        // Create new workbook in memory
-        XSSFWorkbook destWorkbook = new XSSFWorkbook();
-
-        for (int i = 0; i < sourceWorkbook.getNumberOfSheets(); i++) {
-
-            Sheet src = sourceWorkbook.getSheetAt(i);
-            String name = src.getSheetName();
-
-            // match Sudhir, Sudip, etc.
-            if (name.equals(empName)) {
-                Sheet dest = destWorkbook.createSheet(name);
-                copySheetSafe(src, dest, destWorkbook);
-
-                // auto-size a few columns for the whole sheet (only up to used columns)
-                int usedCols = COLS_PER_MONTH * 12;
-                for (int c = 0; c < usedCols; c++) {
-                    dest.autoSizeColumn(c);
-                }
-            }
-        }
-
-        // return bytes
-        try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-            destWorkbook.write(bos);
-            destWorkbook.close();
-            sourceWorkbook.close();
-            return bos.toByteArray();
-        }
+    /**
+     * Only the employee's sheet out of the year workbook written by generateAttendance, written
+     * straight to {@code out}. The out stream is left open.
+     */
+    public void extractSheetsForEmployee(AttendanceSheet generated, OutputStream out) throws Exception {
+        writeEmployeeSheet(renderEmployeeSheet(generated), out);
     }
 
-
-    private void copySheetSafe(Sheet src, Sheet dest, XSSFWorkbook newWb) {
-
-        // 1️⃣ Column widths
-        Row firstRow = src.getRow(0);
-        if (firstRow != null) {
-            for (int c = 0; c < firstRow.getLastCellNum(); c++) {
-                dest.setColumnWidth(c, src.getColumnWidth(c));
-            }
+    /**
+     * The employee's sheet copied out of the year workbook, for {@link #writeEmployeeSheet}.
+     * Read under the workbook's lock (taken before the render permit, as writers do), and
+     * before a response is committed, so a failure here can still become an error status.
+     */
+    public Workbook renderEmployeeSheet(AttendanceSheet generated) throws Exception {
+        try (WorkbookLocks.Held held = workbookLocks.lock(generated.workbookFile().toPath())) {
+            return renderLimiter.call(() -> copyEmployeeSheet(generated));
         }
+    }
 
-        // 2️⃣ Merged regions
-        for (int i = 0; i < src.getNumMergedRegions(); i++) {
-            dest.addMergedRegion(src.getMergedRegion(i));
+    // serializes and releases a rendered sheet. Called after the lock and permit are released:
+    // a slow client doesn't hold up other writes or renders. The out stream is left open.
+    public void writeEmployeeSheet(Workbook rendered, OutputStream out) throws IOException {
+        Timer.Sample serialize = metrics.start();
+        CountingOutputStream counted = new CountingOutputStream(out);
+        try (rendered) {
+            rendered.write(counted);
+        } finally {
+            if (rendered instanceof SXSSFWorkbook streaming) streaming.dispose();
         }
+        metrics.stop(serialize, GenerationMetrics.ATTENDANCE, Phase.SERIALIZE);
+        metrics.bytes(GenerationMetrics.ATTENDANCE, counted.getByteCount());
+    }
 
-        // 3️⃣ Rows + cells
-        for (int r = 0; r <= src.getLastRowNum(); r++) {
-
-            Row srcRow = src.getRow(r);
-            if (srcRow == null) continue;
-
-            Row destRow = dest.createRow(r);
-            destRow.setHeight(srcRow.getHeight());
-
-            for (int c = 0; c < srcRow.getLastCellNum(); c++) {
-
-                Cell oldCell = srcRow.getCell(c);
-                if (oldCell == null) continue;
-
-                Cell newCell = destRow.createCell(c);
-
-                // Copy FULL style including fonts
-                newCell.setCellStyle(cloneCellStyle(newWb, oldCell.getCellStyle()));
-
-                // Comments
-                if (oldCell.getCellComment() != null)
-                    newCell.setCellComment(oldCell.getCellComment());
-
-                // Hyperlinks
-                if (oldCell.getHyperlink() != null)
-                    newCell.setHyperlink(oldCell.getHyperlink());
-
-                // Value
-                switch (oldCell.getCellType()) {
-                    case STRING -> newCell.setCellValue(oldCell.getRichStringCellValue());
-                    case NUMERIC -> newCell.setCellValue(oldCell.getNumericCellValue());
-                    case BOOLEAN -> newCell.setCellValue(oldCell.getBooleanCellValue());
-                    case FORMULA -> newCell.setCellFormula(oldCell.getCellFormula());
-                    case BLANK -> newCell.setBlank();
-                    default -> { }
+    // the sheet is streamed out of the year workbook; the other employees' sheets are never parsed
+    private Workbook copyEmployeeSheet(AttendanceSheet generated) throws Exception {
+
+        Timer.Sample load = metrics.start();
+        StreamingSheetSource source = StreamingSheetSource.open(generated.workbookFile().toPath());
+        metrics.stop(load, GenerationMetrics.ATTENDANCE, Phase.LOAD);
+
+        try (source) {
+            metrics.sheets(GenerationMetrics.ATTENDANCE, source.sheetNames().size());
+
+            // rows go through a streaming window, unless they have to be measured for auto-sizing
+            Workbook destWorkbook = autoSizeColumns ? new XSSFWorkbook() : new SXSSFWorkbook();
+            try {
+                Timer.Sample copy = metrics.start();
+                List<Sheet> copied = source.copySheets(name -> name.equals(generated.sheetName()),
+                        new StyleRegistry(destWorkbook));
+                metrics.stop(copy, GenerationMetrics.ATTENDANCE, Phase.COPY);
+
+                // widths are copied from the source sheet
+                if (autoSizeColumns) {
+                    for (Sheet dest : copied) {
+                        // auto-size a few columns for the whole sheet (only up to used columns)
+                        int usedCols = COLS_PER_MONTH * 12;
+                        for (int c = 0; c < usedCols; c++) {
+                            dest.autoSizeColumn(c);
+                        }
+                    }
                 }
+            } catch (Exception e) {
+                // nobody will write it, so its temp files go now
+                if (destWorkbook instanceof SXSSFWorkbook streaming) streaming.dispose();
+                destWorkbook.close();
+                throw e;
             }
+            return destWorkbook;
         }
     }
 
 
-
-    private CellStyle cloneCellStyle(XSSFWorkbook wb, CellStyle oldStyle) {
-
-        if (oldStyle == null) {
-            return wb.createCellStyle();
-        }
-
-        XSSFCellStyle newStyle = wb.createCellStyle();
-        newStyle.cloneStyleFrom(oldStyle); // copies: borders, fills, alignments, etc.
-
-        // Copy font
-        XSSFCellStyle oldXssf = (XSSFCellStyle) oldStyle;
-        XSSFFont oldFont = oldXssf.getFont();
-
-        XSSFFont newFont = wb.createFont();
-        newFont.setBold(oldFont.getBold());
-        newFont.setColor(oldFont.getColor());
-        newFont.setFontHeight(oldFont.getFontHeight());
-        newFont.setFontName(oldFont.getFontName());
-        newFont.setItalic(oldFont.getItalic());
-        newFont.setUnderline(oldFont.getUnderline());
-        newFont.setStrikeout(oldFont.getStrikeout());
-        newFont.setTypeOffset(oldFont.getTypeOffset());
-
-        newStyle.setFont(newFont);
-
-        return newStyle;
-    }
-
-
-
-
-    // DayStatus
-    private static class DayStatus {
-        LocalDate date;
-        String status;
-        DayOfWeek dayOfWeek;
-
-        DayStatus(LocalDate date, String status, DayOfWeek dow) {
-            this.date = date;
-            this.status = status;
-            this.dayOfWeek = dow;
-        }
+    // one month's computed statuses, ready to be written
+    private record MonthBlock(AttendanceRequest req, MonthCalendar cal, String[] statuses,
+                              int sumP, int sumL, int sumPH, int sumWO, int sumCO, String fingerprint) {
     }
-
-
 }
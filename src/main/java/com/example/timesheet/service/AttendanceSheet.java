@@ -0,0 +1,12 @@
+package com.example.timesheet.service;
+
+import java.io.File;
+
+/**
+ * Where one attendance request wrote its month: the year workbook and the employee's sheet in it.
+ * Returned by {@link AttendanceService#generateAttendance} and handed back to
+ * {@link AttendanceService#renderEmployeeSheet(AttendanceSheet)}, so every request
+ * carries its own state instead of sharing fields on the singleton service.
+ */
+public record AttendanceSheet(File workbookFile, String sheetName) {
+}
@@ -0,0 +1,44 @@
+package com.example.timesheet.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Caps how many requests build or write workbooks at the same time. POI work is CPU bound,
+ * so running more of it than there are cores only adds heap and context switches. This
+ * matters most with virtual threads, where the number of request threads is unbounded:
+ * the I/O around the render still runs freely, the render itself waits for a permit.
+ * <p>
+ * Permits are not reentrant; take one at the public entry point only.
+ */
+@Component
+public class RenderLimiter {
+
+    private final Semaphore permits;
+
+    public RenderLimiter(@Value("${timesheet.render.permits:0}") int permits) {
+        int size = permits > 0 ? permits : Runtime.getRuntime().availableProcessors();
+        this.permits = new Semaphore(size, true);
+    }
+
+    public <T> T call(Callable<T> work) throws Exception {
+        try (Permit permit = acquire()) {
+            return work.call();
+        }
+    }
+
+    // for try-with-resources around a block, e.g. next to a file lock
+    public Permit acquire() throws InterruptedException {
+        permits.acquire();
+        return permits::release;
+    }
+
+    @FunctionalInterface
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.timesheet.service;
+
+import com.example.timesheet.dto.TeamTimesheetRequest;
+import com.example.timesheet.entity.Employee;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * What {@link TeamTimesheetService#renderTeam} stored for one team request: each employee's
+ * part, in team order. Handed back to {@link TeamTimesheetService#writeTeam}, which packs
+ * the parts into the response.
+ */
+public record TeamParts(TeamTimesheetRequest request, List<Employee> team, List<Path> parts) {
+}
@@ -0,0 +1,126 @@
+package com.example.timesheet.service;
+
+import com.example.timesheet.dto.TeamTimesheetRequest;
+import com.example.timesheet.dto.TimesheetMonth;
+import com.example.timesheet.entity.Employee;
+import com.example.timesheet.metrics.GenerationMetrics;
+import com.example.timesheet.repository.EmployeeDirectory;
+import com.example.timesheet.storage.TimesheetSheetStore;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Month-end generation for a whole team in one call. Every employee's month is rendered
+ * into its own part on the render pool, so sheets are built in parallel across cores with
+ * the same layout as the single-employee endpoint; the parts are then packed into a ZIP
+ * or copied into one workbook.
+ */
+@Service
+public class TeamTimesheetService {
+
+    private final TimesheetService timesheetService;
+    private final EmployeeDirectory employees;
+    private final ExecutorService renderExecutor;
+    private final GenerationMetrics metrics;
+
+    public TeamTimesheetService(TimesheetService timesheetService,
+                                EmployeeDirectory employees,
+                                @Qualifier("renderExecutor") ExecutorService renderExecutor,
+                                GenerationMetrics metrics) {
+        this.timesheetService = timesheetService;
+        this.employees = employees;
+        this.renderExecutor = renderExecutor;
+        this.metrics = metrics;
+    }
+
+    // Renders and stores every employee's month; a bad id or date fails here, before the response is started
+    public TeamParts renderTeam(TeamTimesheetRequest req) throws Exception {
+
+        // 1️⃣ Resolve and validate everything up front, so a bad id or date fails before any rendering
+        List<Employee> team = resolveTeam(req);
+        Map<Employee, TimesheetMonth> months = new LinkedHashMap<>();
+        for (Employee emp : team) {
+            months.put(emp, timesheetService.computeMonth(req.toRequest(emp.getEmployeeId())));
+        }
+
+        // 2️⃣ Render + store each employee's part in parallel
+        List<Future<Path>> futures = new ArrayList<>();
+        for (Map.Entry<Employee, TimesheetMonth> e : months.entrySet()) {
+            futures.add(renderExecutor.submit(() -> timesheetService.writePart(e.getKey(), e.getValue())));
+        }
+
+        List<Path> parts = new ArrayList<>();
+        try {
+            for (Future<Path> f : futures) {
+                parts.add(f.get());
+            }
+        } catch (ExecutionException ex) {
+            futures.forEach(f -> f.cancel(true));
+            if (ex.getCause() instanceof Exception cause) throw cause;
+            throw ex;
+        }
+
+        return new TeamParts(req, team, parts);
+    }
+
+    // 3️⃣ Pack the parts straight into out (left open), as a ZIP or one workbook
+    public void writeTeam(TeamParts rendered, OutputStream out) throws Exception {
+        if (TeamTimesheetRequest.FORMAT_XLSX.equals(rendered.request().getFormat())) {
+            timesheetService.assembleWorkbook(rendered.parts(), out);
+        } else {
+            zip(rendered, out);
+        }
+    }
+
+    private List<Employee> resolveTeam(TeamTimesheetRequest req) {
+        if (req.isAllEmployees()) {
+            List<Employee> all = employees.findAll();
+            if (all.isEmpty()) {
+                throw new IllegalArgumentException("No employees found");
+            }
+            return all;
+        }
+
+        // duplicates would render the same part twice
+        List<Employee> team = new ArrayList<>();
+        for (String id : new LinkedHashSet<>(req.getEmployeeIds())) {
+            team.add(timesheetService.findEmployee(id));
+        }
+        return team;
+    }
+
+    // A part file is already a complete workbook, so it goes into the ZIP as is
+    private void zip(TeamParts rendered, OutputStream out) throws Exception {
+        TeamTimesheetRequest req = rendered.request();
+        List<Path> parts = rendered.parts();
+
+        Timer.Sample serialize = metrics.start();
+        CountingOutputStream counted = new CountingOutputStream(out);
+        // closing the ZIP finishes it and frees its deflater, but out belongs to the caller
+        try (ZipOutputStream zip = new ZipOutputStream(CloseShieldOutputStream.wrap(counted))) {
+            for (int i = 0; i < parts.size(); i++) {
+                // escaped like the part directories, so distinct ids never share an entry name
+                String id = TimesheetSheetStore.safeName(rendered.team().get(i).getEmployeeId());
+                zip.putNextEntry(new ZipEntry(String.format("timesheet-%s-%d-%02d.xlsx", id, req.getYear(), req.getMonth())));
+                Files.copy(parts.get(i), zip);
+                zip.closeEntry();
+            }
+        }
+        metrics.stop(serialize, GenerationMetrics.TEAM, GenerationMetrics.Phase.SERIALIZE);
+        metrics.sheets(GenerationMetrics.TEAM, parts.size());
+        metrics.bytes(GenerationMetrics.TEAM, counted.getByteCount());
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.timesheet.service;
+
+/**
+ * An employee's year workbook as returned by {@link TimesheetService#download}, with the
+ * ETag that identifies its content. The content is null when the client already holds it.
+ */
+public record TimesheetDownload(byte[] content, String etag) {
+
+    public boolean notModified() {
+        return content == null;
+    }
+}
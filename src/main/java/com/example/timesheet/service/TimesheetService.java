@@ -1,277 +1,367 @@
 package com.example.timesheet.service;
 
+import com.example.timesheet.calendar.DaySet;
+import com.example.timesheet.calendar.MonthCalendar;
+import com.example.timesheet.calendar.MonthHolidays;
+import com.example.timesheet.dto.TimesheetMonth;
 import com.example.timesheet.dto.TimesheetRequest;
 import com.example.timesheet.dto.TimesheetRow;
 import com.example.timesheet.entity.Employee;
-import com.example.timesheet.repository.EmployeeRepository;
-import org.apache.commons.compress.utils.IOUtils;
+import com.example.timesheet.excel.ClasspathImage;
+import com.example.timesheet.excel.ColumnWidths;
+import com.example.timesheet.excel.FontSpec;
+import com.example.timesheet.excel.SheetCopier;
+import com.example.timesheet.excel.StreamingSheetSource;
+import com.example.timesheet.excel.StyleRegistry;
+import com.example.timesheet.excel.StyleSpec;
+import com.example.timesheet.metrics.GenerationMetrics;
+import com.example.timesheet.metrics.GenerationMetrics.Phase;
+import com.example.timesheet.repository.EmployeeDirectory;
+import com.example.timesheet.storage.ResponseCache;
+import com.example.timesheet.storage.TimesheetSheetStore;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
-import org.apache.poi.ss.util.RegionUtil;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.*;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.*;
-import java.time.format.DateTimeFormatter;
 import java.time.format.TextStyle;
 import java.util.*;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 @Service
 public class TimesheetService {
 
-    private final EmployeeRepository employeeRepository;
-    private final DateTimeFormatter iso = DateTimeFormatter.ISO_LOCAL_DATE;
+    private final EmployeeDirectory employees;
     private static final String IN_TIME = "08:00";
     private static final String OUT_TIME = "17:00";
+    private static final String SATURDAY_OUT_TIME = "13:00";
+    private static final double WEEKDAY_HOURS = Duration.between(LocalTime.parse(IN_TIME), LocalTime.parse(OUT_TIME)).toMinutes() / 60.0;
+    private static final double SATURDAY_HOURS = Duration.between(LocalTime.parse(IN_TIME), LocalTime.parse(SATURDAY_OUT_TIME)).toMinutes() / 60.0;
+    private static final String WEEKDAY_DURATION = String.format("%.2f", WEEKDAY_HOURS);
+    private static final String SATURDAY_DURATION = String.format("%.2f", SATURDAY_HOURS);
+
+    // the daily table (up to 31 rows) is revisited for its outer border, so the window must cover a whole month
+    private static final int STREAMING_ROW_WINDOW = 40;
+
+    // read once when the service is created, instead of from the classpath on every request
+    private static final ClasspathImage LOGO = ClasspathImage.png("/logo.png");
+
+    private final TimesheetSheetStore sheetStore;
+    private final ResponseCache responseCache;
+    private final RenderLimiter renderLimiter;
+    private final GenerationMetrics metrics;
+    private final boolean streaming;
+    private final boolean autoSizeColumns;
+
+    public TimesheetService(EmployeeDirectory employees,
+                            TimesheetSheetStore sheetStore,
+                            ResponseCache responseCache,
+                            RenderLimiter renderLimiter,
+                            GenerationMetrics metrics,
+                            @Value("${timesheet.excel.streaming:false}") boolean streaming,
+                            @Value("${timesheet.excel.autosize-columns:false}") boolean autoSizeColumns) {
+        this.employees = employees;
+        this.sheetStore = sheetStore;
+        this.responseCache = responseCache;
+        this.renderLimiter = renderLimiter;
+        this.metrics = metrics;
+        this.streaming = streaming;
+        this.autoSizeColumns = autoSizeColumns;
+    }
 
-    public TimesheetService(EmployeeRepository employeeRepository) {
-        this.employeeRepository = employeeRepository;
+    public byte[] generateTimesheet(TimesheetRequest req) throws Exception {
+        return download(req).content();
     }
 
-    File excelFile;
-    String sheetName;
+    public TimesheetDownload download(TimesheetRequest req) throws Exception {
+        return download(req, etag -> false);
+    }
 
-    public byte[] generateTimesheet(TimesheetRequest req) throws Exception {
+    /**
+     * The employee's workbook for the year with the requested month written, or the bytes
+     * returned last time when nothing they are built from has changed since: the request,
+     * the employee record and the employee's stored parts for the year.
+     *
+     * @param clientHas whether the client already holds the download with this ETag; if it
+     *                  does, nothing is rendered or written and the download has no content
+     */
+    public TimesheetDownload download(TimesheetRequest req, Predicate<String> clientHas) throws Exception {
+
+        Employee emp = findEmployee(req.getEmployeeId());
+        TimesheetMonth month = computeMonth(req);
+        String request = requestKey(emp, month);
+
+        // the parts as they are now, by the digests recorded when they were written. This month's
+        // part is in a cached key only as the build of this same request wrote it, so a match
+        // means its sheet already holds what this request renders
+        String key = downloadKey(request, sheetStore.stored(month.year, emp.getEmployeeId()));
+        if (clientHas.test(key)) {
+            return new TimesheetDownload(null, key);
+        }
+        byte[] cached = responseCache.get(key);
+        if (cached != null) {
+            metrics.cached(GenerationMetrics.TIMESHEET);
+            return new TimesheetDownload(cached, key);
+        }
 
+        Built built = renderLimiter.call(() -> buildExcel(emp, month));
 
-        Employee emp = (Employee) employeeRepository.findByEmployeeId(req.getEmployeeId())
-                .orElseThrow(() -> new IllegalArgumentException("Employee not found: " + req.getEmployeeId()));
+        // keyed by the parts exactly as this build read them: one written meanwhile has another digest
+        String written = downloadKey(request, built.parts());
+        responseCache.put(written, emp.getEmployeeId(), built.content());
+        return new TimesheetDownload(built.content(), written);
+    }
 
-        Set<LocalDate> holidaySet = new TreeSet<>();
-        Set<LocalDate> leaveSet = new TreeSet<>();
+    // the request in canonical form: the employee record and the month's rows as they are rendered,
+    // so requests that only differ in form (e.g. the order of leave dates) share their downloads
+    private static String requestKey(Employee emp, TimesheetMonth month) {
+        ResponseCache.Key key = ResponseCache.key()
+                .add(emp.getEmployeeId()).add(emp.getEmployeeName()).add(emp.getEmail()).add(emp.getJoiningDate())
+                .add(month.year).add(month.month).add(month.rows.size());
+        for (TimesheetRow row : month.rows) {
+            key.add(row.dayName).add(row.date).add(row.activity).add(row.inTime).add(row.outTime)
+                    .add(row.duration).add(row.managerApproval).add(row.remarks);
+        }
+        return key.hex();
+    }
 
+    // the request and every part of the year the workbook is assembled from
+    private static String downloadKey(String request, List<TimesheetSheetStore.Part> parts) {
+        ResponseCache.Key key = ResponseCache.key().add(request).add(parts.size());
+        for (TimesheetSheetStore.Part part : parts) {
+            key.add(part.file().getFileName().toString()).add(part.digest());
+        }
+        return key.hex();
+    }
 
-        // validate holidays and leave dates belong to the same month and year as in the request
-        if (req.getHolidays() != null) {
-            for (String d : req.getHolidays()) {
-                LocalDate holiday = LocalDate.parse(d, iso);
-                if (holiday.getYear() != req.getYear() || holiday.getMonthValue() != req.getMonth()) {
-                    throw new IllegalArgumentException("Holiday " + d + " doesn't belong to month " + req.getMonth() + "/" + req.getYear());
-                }
-                holidaySet.add(holiday);
-            }
+    public Employee findEmployee(String employeeId) {
+        Timer.Sample lookup = metrics.start();
+        try {
+            return employees.find(employeeId)
+                    .orElseThrow(() -> new IllegalArgumentException("Employee not found: " + employeeId));
+        } finally {
+            metrics.stop(lookup, GenerationMetrics.TIMESHEET, Phase.LOOKUP);
         }
+    }
 
-        if (req.getLeaveDates() != null) {
-            for (String d : req.getLeaveDates()) {
-                LocalDate leave = LocalDate.parse(d, iso);
-                if (leave.getYear() != req.getYear() || leave.getMonthValue() != req.getMonth()) {
-                    throw new IllegalArgumentException("Leave " + d + " doesn't belong to month " + req.getMonth() + "/" + req.getYear());
-                }
-                leaveSet.add(leave);
-            }
+    // Daily rows and totals for the requested month; validates the holiday and leave dates
+    public TimesheetMonth computeMonth(TimesheetRequest req) {
+        Timer.Sample dayStatus = metrics.start();
+        try {
+            return computeRows(req);
+        } finally {
+            metrics.stop(dayStatus, GenerationMetrics.TIMESHEET, Phase.DAY_STATUS);
         }
+    }
+
+    private TimesheetMonth computeRows(TimesheetRequest req) {
+
+        // validate holidays and leave dates belong to the same month and year as in the request;
+        // each holiday is paired with its remark here, by position in the request
+        MonthHolidays holidays = MonthHolidays.parse(req.getYear(), req.getMonth(), req.getHolidays(), req.getRemarks());
+
+        DaySet leaves = DaySet.parse(req.getLeaveDates(), req.getYear(), req.getMonth(), null,
+                d -> new IllegalArgumentException("Leave " + d + " doesn't belong to month " + req.getMonth() + "/" + req.getYear()));
 
 
-        YearMonth ym = YearMonth.of(req.getYear(), req.getMonth());
-        LocalDate start = ym.atDay(1);
-        LocalDate end = ym.atEndOfMonth();
+        // day types and labels come precomputed; only the request's own dates are looked up per day
+        MonthCalendar cal = MonthCalendar.of(req.getYear(), req.getMonth(), req.getSaturdayWeekoff());
 
-        List<TimesheetRow> rows = new ArrayList<>();
+        List<TimesheetRow> rows = new ArrayList<>(cal.length());
         int regularWorkDays = 0;
         int leaveDays = 0;
         double totalHours = 0.0;
 
-        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+        for (int day = 1; day <= cal.length(); day++) {
             TimesheetRow row = new TimesheetRow();
-            row.dayName = date.getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
-            row.date = String.format("%02d", date.getDayOfMonth());
+            row.dayName = cal.dayName(day);
+            row.date = cal.dayNumber(day);
             row.managerApproval = req.getManagerApproval();
-            row.remarks = holidaySet.contains(date)?req.getRemarks().get(new ArrayList<>(holidaySet).indexOf(date)): "";
-
-            boolean isSunday = date.getDayOfWeek() == DayOfWeek.SUNDAY;
-            boolean isSaturday = date.getDayOfWeek() == DayOfWeek.SATURDAY;
-            int saturdayNumber = 0;
-            int dom = date.getDayOfMonth();
-            if (isSaturday) saturdayNumber = ((dom - 1) / 7) + 1;
-
-
-            if ((req.getSaturdayWeekoff() == TimesheetRequest.WEEKOFF_1ST_3RD || req.getSaturdayWeekoff() == TimesheetRequest.WEEKOFF_2ND_4TH || req.getSaturdayWeekoff() == TimesheetRequest.ALL_WEEKOFF) && isSaturday) {
-                //int saturdayNumber = ((dom - 1) / 7) + 1;
-                if ((req.getSaturdayWeekoff() == TimesheetRequest.WEEKOFF_1ST_3RD && (saturdayNumber == 1 || saturdayNumber == 3)) ||
-                        (req.getSaturdayWeekoff() == TimesheetRequest.WEEKOFF_2ND_4TH && (saturdayNumber == 2 || saturdayNumber == 4)) ||
-                        (req.getSaturdayWeekoff() == TimesheetRequest.ALL_WEEKOFF)) {
-
-                    if (holidaySet.contains(date) || leaveSet.contains(date)) {
-                        throw new IllegalArgumentException("Saturday " + date + " cannot be marked as leave or holidays");
-                    }
-                }
-
+            row.remarks = holidays.remark(day);
 
+            if (cal.isSaturdayOff(day) && (holidays.contains(day) || leaves.contains(day))) {
+                throw new IllegalArgumentException("Saturday " + cal.date(day) + " cannot be marked as leave or holidays");
             }
 
-            if (leaveSet.contains(date)) {
+            if (leaves.contains(day)) {
                 row.activity = "Leave";
                 row.inTime = "";
                 row.outTime = "";
                 row.duration = "";
                 leaveDays++;
-            } else if (isSunday) {
+            } else if (cal.isSunday(day)) {
                 row.activity = "WeekOff";
                 row.inTime = "";
                 row.outTime = "";
                 row.duration = "";
-            } else if (holidaySet.contains(date)) {
+            } else if (holidays.contains(day)) {
                 row.activity = "Holiday";
                 row.inTime = "";
                 row.outTime = "";
                 row.duration = "";
-            }
-            else if (req.getSaturdayWeekoff() == TimesheetRequest.WEEKOFF_1ST_3RD && isSaturday && (saturdayNumber == 1 || saturdayNumber == 3)) {
-                row.activity = "WeekOff";
-                row.inTime = "";
-                row.outTime = "";
-                row.duration = "";
-
-            } else if (req.getSaturdayWeekoff() == TimesheetRequest.WEEKOFF_2ND_4TH && isSaturday && (saturdayNumber == 2 || saturdayNumber == 4)) {
+            } else if (cal.isSaturdayOff(day)) {
                 row.activity = "WeekOff";
                 row.inTime = "";
                 row.outTime = "";
                 row.duration = "";
-            } else if (req.getSaturdayWeekoff() == TimesheetRequest.ALL_WEEKOFF && isSaturday ) {
-            row.activity = "WeekOff";
-            row.inTime = "";
-            row.outTime = "";
-            row.duration = "";
             } else {
                 row.activity = "Regular Work";
                 row.inTime = IN_TIME;
-                double hrs;
-                if (isSaturday) {
-                    row.outTime = "13:00";
-                    hrs = Duration.between(LocalTime.parse(IN_TIME), LocalTime.parse("13:00")).toMinutes() / 60.0;
+                if (cal.isSaturday(day)) {
+                    row.outTime = SATURDAY_OUT_TIME;
+                    row.duration = SATURDAY_DURATION;
+                    totalHours += SATURDAY_HOURS;
                 } else {
                     row.outTime = OUT_TIME;
-                    hrs = Duration.between(LocalTime.parse(IN_TIME), LocalTime.parse(OUT_TIME)).toMinutes() / 60.0;
+                    row.duration = WEEKDAY_DURATION;
+                    totalHours += WEEKDAY_HOURS;
                 }
-                row.duration = String.format("%.2f", hrs);
-                totalHours += hrs;
                 regularWorkDays++;
             }
             rows.add(row);
         }
 
-        return buildExcel(emp, req.getYear(), req.getMonth(), rows, regularWorkDays, leaveDays, totalHours);
+        return new TimesheetMonth(req.getYear(), req.getMonth(), rows, regularWorkDays, leaveDays, totalHours);
     }
 
-    private byte[] buildExcel(Employee emp, int year, int month,
-                              List<TimesheetRow> rows, int regularWorkDays, int leaveDays, double totalHours) throws Exception {
-
-
-//        String fileName = String.format("timesheet-%d-%02d.xlsx", year, month);
-        String fileName = String.format("timesheet-%d.xlsx", year);
-         excelFile = new File(fileName);
-
-        XSSFWorkbook wb;
+    // Writes the month's part and returns the employee's workbook for the year. The new month is
+    // rendered straight from the rows, so the response is serialized once and nothing is re-parsed.
+    // In streaming mode the response workbook is built with SXSSF too, the other months streamed
+    // in from their parts, so no month is held as a whole sheet in memory. The serialized bytes
+    // are still buffered either way: the response cache keeps them (see #download). Returns the
+    // parts as they were read, for the cache key.
+    private Built buildExcel(Employee emp, TimesheetMonth month) throws Exception {
+
+        TimesheetSheetStore.Part current = renderPart(emp, month);
+        List<TimesheetSheetStore.Part> used = new ArrayList<>();
+
+        // auto-sizing measures every row, which a streamed sheet no longer has
+        boolean streamed = streaming && !autoSizeColumns;
+        Workbook destWorkbook = streamed ? new SXSSFWorkbook(STREAMING_ROW_WINDOW) : new XSSFWorkbook();
+        try {
+            StyleRegistry destStyles = new StyleRegistry(destWorkbook);
+
+            for (Path part : sheetStore.parts(month.year, emp.getEmployeeId())) {
+                if (part.getFileName().equals(current.file().getFileName())) {
+                    Sheet sheet = destWorkbook.createSheet(sheetName(emp, month.year, month.month));
+                    renderSheet(destStyles, sheet, emp, month);
+                    used.add(current);
+                } else if (streamed) {
+                    used.add(streamPart(part, destStyles));
+                } else {
+                    used.add(copyPart(part, destStyles));
+                }
+            }
 
-        // If file exists open it, else create new
-        if (excelFile.exists()) {
-            try (FileInputStream fis = new FileInputStream(excelFile)) {
-                wb = new XSSFWorkbook(fis);
+            // kept in the response cache, so this one is materialized
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            serialize(destWorkbook, bos);
+            return new Built(bos.toByteArray(), used);
+        } finally {
+            if (destWorkbook instanceof SXSSFWorkbook streamedWorkbook) {
+                streamedWorkbook.dispose();
             }
-        } else {
-            wb = new XSSFWorkbook();
         }
+    }
+
+    // Each employee/month is stored as its own part, so only this month is rendered and written.
+    // Touches nothing but its own workbook, so parts of different employees can be written in parallel.
+    public Path writePart(Employee emp, TimesheetMonth month) throws Exception {
+        return renderLimiter.call(() -> renderPart(emp, month)).file();
+    }
 
+    private TimesheetSheetStore.Part renderPart(Employee emp, TimesheetMonth month) throws IOException {
 
-        Month monthEnum = Month.of(month);
-        String monthName = monthEnum.getDisplayName(TextStyle.SHORT_STANDALONE, Locale.ENGLISH);
-        // Sheet name e.g.: Sudhir_2025_01
-         sheetName = emp.getEmployeeName().split(" ")[0] + ", " + monthName + " " + year;
-        int existingIndex = wb.getSheetIndex(sheetName);
-        if (existingIndex != -1) {
-            wb.removeSheetAt(existingIndex);
+        Workbook wb = streaming ? new SXSSFWorkbook(STREAMING_ROW_WINDOW) : new XSSFWorkbook();
+        try {
+            Sheet sheet = wb.createSheet(sheetName(emp, month.year, month.month));
+            if (autoSizeColumns && sheet instanceof SXSSFSheet streamingSheet) {
+                streamingSheet.trackAllColumnsForAutoSizing();
+            }
+            renderSheet(new StyleRegistry(wb), sheet, emp, month);
+
+            Timer.Sample write = metrics.start();
+            TimesheetSheetStore.Part part = sheetStore.write(month.year, emp.getEmployeeId(), month.month, wb);
+            metrics.stop(write, GenerationMetrics.TIMESHEET, Phase.WRITE);
+            return part;
+        } finally {
+            if (wb instanceof SXSSFWorkbook streamed) {
+                streamed.dispose();
+            }
+            wb.close();
         }
+    }
 
-        Sheet sheet = wb.createSheet(sheetName);
+    // Sheet name e.g.: Sudhir, Jan 2025
+    private static String sheetName(Employee emp, int year, int month) {
+        String monthName = Month.of(month).getDisplayName(TextStyle.SHORT_STANDALONE, Locale.ENGLISH);
+        return emp.getEmployeeName().split(" ")[0] + ", " + monthName + " " + year;
+    }
 
+    // Lays out one employee/month sheet. Works against both XSSF and SXSSF workbooks, so only
+    // touches rows that are still inside the streaming window.
+    private void renderSheet(StyleRegistry styles, Sheet sheet, Employee emp, TimesheetMonth m) throws IOException {
 
+            Timer.Sample render = metrics.start();
+            Workbook wb = styles.workbook();
+            int year = m.year;
+            int month = m.month;
+            List<TimesheetRow> rows = m.rows;
 
             // ---- Styles ----
+            // Specs describe the look; the registry creates each distinct style/font once per workbook
 
-            CellStyle borderDashDot = wb.createCellStyle();
-            borderDashDot.setBorderTop(BorderStyle.DASHED);
-            borderDashDot.setBorderBottom(BorderStyle.DASHED);
-            borderDashDot.setBorderLeft(BorderStyle.DASHED);
-            borderDashDot.setBorderRight(BorderStyle.DASHED);
-
-            // Set border color
-            short lightGrayDashed = IndexedColors.GREY_25_PERCENT.getIndex();
-            borderDashDot.setTopBorderColor(lightGrayDashed);
-            borderDashDot.setBottomBorderColor(lightGrayDashed);
-            borderDashDot.setLeftBorderColor(lightGrayDashed);
-            borderDashDot.setRightBorderColor(lightGrayDashed);
+            short grey = IndexedColors.GREY_25_PERCENT.getIndex();
 
+            // light gray dashed border for the daily table
+            StyleSpec borderDashDot = StyleSpec.DEFAULT.border(BorderStyle.DASHED).borderColor(grey);
 
-            CellStyle doubleBorder = wb.createCellStyle();
-            doubleBorder.setBorderTop(BorderStyle.DOUBLE);
-            doubleBorder.setBorderBottom(BorderStyle.DOUBLE);
-            doubleBorder.setBorderLeft(BorderStyle.DOUBLE);
-            doubleBorder.setBorderRight(BorderStyle.DOUBLE);
+            StyleSpec doubleBorder = StyleSpec.DEFAULT.border(BorderStyle.DOUBLE);
 
-            CellStyle doubleBorderGrey = wb.createCellStyle();
-            doubleBorderGrey.cloneStyleFrom(doubleBorder);
-            doubleBorderGrey.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-            doubleBorderGrey.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-
-            CellStyle lightGray = wb.createCellStyle();
-            lightGray.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-            lightGray.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            StyleSpec doubleBorderGrey = doubleBorder.fill(grey);
 
 
             // Title style (double border + underline + bold + centered)
-            Font titleFont = wb.createFont();
-            titleFont.setBold(true);
-            titleFont.setUnderline(FontUnderline.SINGLE.getByteValue());
-            titleFont.setFontHeightInPoints((short) 16);
+            FontSpec titleFont = FontSpec.DEFAULT.bold()
+                    .underline(FontUnderline.SINGLE.getByteValue())
+                    .heightInPoints((short) 16);
 
-            CellStyle titleStyle = wb.createCellStyle();
-            titleStyle.cloneStyleFrom(doubleBorder);
-            titleStyle.setFont(titleFont);
-            titleStyle.setAlignment(HorizontalAlignment.CENTER);
-            titleStyle.setVerticalAlignment(VerticalAlignment.CENTER);
+            CellStyle titleStyle = styles.style(doubleBorder.font(titleFont).center());
 
             // Label / value styles for merged rows
-            Font labelF = wb.createFont();
-            labelF.setBold(true);
-            labelF.setItalic(true);
-            CellStyle labelStyle = wb.createCellStyle();
-            labelStyle.setFont(labelF);
-            labelStyle.setAlignment(HorizontalAlignment.RIGHT);
+            CellStyle labelStyle = styles.style(StyleSpec.DEFAULT
+                    .font(FontSpec.DEFAULT.bold().italic())
+                    .align(HorizontalAlignment.RIGHT));
 
 
-            CellStyle valueStyle = wb.createCellStyle();
-            valueStyle.setAlignment(HorizontalAlignment.LEFT);
+            CellStyle valueStyle = styles.style(StyleSpec.DEFAULT.align(HorizontalAlignment.LEFT));
 
             // Year/Month header style (bold black + grey + double border)
-            Font boldBlack = wb.createFont();
-            boldBlack.setBold(true);
-            boldBlack.setColor(IndexedColors.BLACK.getIndex());
+            FontSpec boldBlack = FontSpec.DEFAULT.bold().color(IndexedColors.BLACK.getIndex());
 
-            CellStyle yearMonthHeaderStyle = wb.createCellStyle();
-            yearMonthHeaderStyle.cloneStyleFrom(doubleBorderGrey);
-            yearMonthHeaderStyle.setFont(boldBlack);
-            yearMonthHeaderStyle.setAlignment(HorizontalAlignment.CENTER);
-            yearMonthHeaderStyle.setVerticalAlignment(VerticalAlignment.CENTER);
+            CellStyle yearMonthHeaderStyle = styles.style(doubleBorderGrey.font(boldBlack).center());
 
             // Year/month value style (double border, centered)
-            CellStyle yearMonthValueStyle = wb.createCellStyle();
-            yearMonthValueStyle.cloneStyleFrom(doubleBorder);
-            yearMonthValueStyle.setAlignment(HorizontalAlignment.CENTER);
-            yearMonthValueStyle.setVerticalAlignment(VerticalAlignment.CENTER);
+            CellStyle yearMonthValueStyle = styles.style(doubleBorder.center());
 
             // GRSE style
-            Font whiteBold = wb.createFont();
-            whiteBold.setBold(true);
-            whiteBold.setColor(IndexedColors.WHITE.getIndex());
+            FontSpec whiteBold = FontSpec.DEFAULT.bold().color(IndexedColors.WHITE.getIndex());
+
+            CellStyle grseStyle = styles.style(doubleBorderGrey.font(whiteBold).center());
 
-            CellStyle grseStyle = wb.createCellStyle();
-            grseStyle.cloneStyleFrom(doubleBorderGrey);
-            grseStyle.setFont(whiteBold);
-            grseStyle.setAlignment(HorizontalAlignment.CENTER);
-            grseStyle.setVerticalAlignment(VerticalAlignment.CENTER);
+            // Daily rows, shaded for non-working days
+            CellStyle rowStyle = styles.style(borderDashDot.center());
+            CellStyle shadedStyle = styles.style(borderDashDot.fill(grey).center());
 
             int r = 0;
 
@@ -304,21 +394,17 @@ public class TimesheetService {
             // Insert Company Logo
 
             // -----------------------------
-        InputStream logoStream = getClass().getResourceAsStream("/logo.png");
-        if (logoStream == null) {
-            throw new RuntimeException("logo.png not found in resources folder");
-        }
-        byte[] imageBytes = IOUtils.toByteArray(logoStream);
-        int imageId = wb.addPicture(imageBytes, Workbook.PICTURE_TYPE_PNG);
+            // one picture part per workbook, however many months show it
+            int imageId = LOGO.addTo(styles);
 
 
-            XSSFDrawing drawing = (XSSFDrawing) sheet.createDrawingPatriarch();
-            XSSFClientAnchor logoAnchor = new XSSFClientAnchor(
+            Drawing<?> drawing = sheet.createDrawingPatriarch();
+            ClientAnchor logoAnchor = new XSSFClientAnchor(
                     0, 20000, 0, -20000,
                     3, 1,   // B2
                     4, 2    // small area under control
             );
-            XSSFPicture pic = drawing.createPicture(logoAnchor, imageId);
+            drawing.createPicture(logoAnchor, imageId);
 
 
             sheet.getRow(1).setHeightInPoints(30);
@@ -347,9 +433,9 @@ public class TimesheetService {
             makeFirstCellBlank.accept(row10);
 
             // Stats
-            createMergedLabeledRow(sheet, r++, "Regular Work", String.valueOf(regularWorkDays), wb, labelStyle, valueStyle);
-            createMergedLabeledRow(sheet, r++, "Total Hours", String.format("%.2f", totalHours), wb, labelStyle, valueStyle);
-            createMergedLabeledRow(sheet, r++, "Leave", String.valueOf(leaveDays), wb, labelStyle, valueStyle);
+            createMergedLabeledRow(sheet, r++, "Regular Work", String.valueOf(m.regularWorkDays), wb, labelStyle, valueStyle);
+            createMergedLabeledRow(sheet, r++, "Total Hours", String.format("%.2f", m.totalHours), wb, labelStyle, valueStyle);
+            createMergedLabeledRow(sheet, r++, "Leave", String.valueOf(m.leaveDays), wb, labelStyle, valueStyle);
 
             // Row 14 blank
 
@@ -364,7 +450,7 @@ public class TimesheetService {
                     Cell c = r1.getCell(col);
                     if (c == null) c = r1.createCell(col);
 
-                    patchGrayAndDoubleBorder(c, wb);
+                    patchGrayAndDoubleBorder(c, styles);
                 }
             }
 
@@ -372,10 +458,7 @@ public class TimesheetService {
 
             CellRangeAddress outerBlock = new CellRangeAddress(4, 13, 1, 8);  // B5 → I14
 
-            RegionUtil.setBorderTop(BorderStyle.DOUBLE, outerBlock, sheet);
-            RegionUtil.setBorderBottom(BorderStyle.DOUBLE, outerBlock, sheet);
-            RegionUtil.setBorderLeft(BorderStyle.DOUBLE, outerBlock, sheet);
-            RegionUtil.setBorderRight(BorderStyle.DOUBLE, outerBlock, sheet);
+            styles.outline(sheet, outerBlock, BorderStyle.DOUBLE);
 
 
 
@@ -421,12 +504,7 @@ public class TimesheetService {
             String[] headers = {"Day", "Date", "In Time", "Out Time", "Duration  (Hrs)", "Activity", "Manager Approval", "Remarks"};
             Row headerRow = sheet.createRow(r++);
             makeFirstCellBlank.accept(headerRow);
-            Font hf = wb.createFont();
-            hf.setBold(true);
-            CellStyle headerStyle = wb.createCellStyle();
-            headerStyle.setFont(hf);
-            headerStyle.setVerticalAlignment(VerticalAlignment.CENTER);
-            headerStyle.setAlignment(HorizontalAlignment.CENTER);
+            CellStyle headerStyle = styles.style(StyleSpec.DEFAULT.font(FontSpec.DEFAULT.bold()).center());
             for (int i = 0; i < headers.length; i++) {
                 Cell c = headerRow.createCell(i + 1);
                 c.setCellValue(headers[i]);
@@ -438,10 +516,7 @@ public class TimesheetService {
 
             CellRangeAddress outerBlock2 = new CellRangeAddress(r-1, r-1, 1, 8);  // B5 → I14
 
-            RegionUtil.setBorderTop(BorderStyle.DOUBLE, outerBlock2, sheet);
-            RegionUtil.setBorderBottom(BorderStyle.DOUBLE, outerBlock2, sheet);
-            RegionUtil.setBorderLeft(BorderStyle.DOUBLE, outerBlock2, sheet);
-            RegionUtil.setBorderRight(BorderStyle.DOUBLE, outerBlock2, sheet);
+            styles.outline(sheet, outerBlock2, BorderStyle.DOUBLE);
 
 
 
@@ -455,17 +530,7 @@ public class TimesheetService {
                         || "Leave".equalsIgnoreCase(tr.activity)
                         || "WeekOff".equalsIgnoreCase(tr.activity);
 
-                CellStyle rowStyle = wb.createCellStyle();
-                rowStyle.cloneStyleFrom(borderDashDot);
-
-                CellStyle shadedStyle = wb.createCellStyle();
-                shadedStyle.cloneStyleFrom(borderDashDot);
-                shadedStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-                shadedStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-
                 CellStyle use = nonWorking ? shadedStyle : rowStyle;
-                use.setAlignment(HorizontalAlignment.CENTER);
-                use.setVerticalAlignment(VerticalAlignment.CENTER);
 
                 // fill cells from column 1 to 8 (A is blank)
                 int col = 1;
@@ -504,16 +569,8 @@ public class TimesheetService {
 
             CellRangeAddress outerBlock3 = new CellRangeAddress(20, r-1, 1, 8);  // B21 → I50
 
-            RegionUtil.setBorderTop(BorderStyle.DOUBLE, outerBlock3, sheet);
-            RegionUtil.setBorderBottom(BorderStyle.DOUBLE, outerBlock3, sheet);
-            RegionUtil.setBorderLeft(BorderStyle.DOUBLE, outerBlock3, sheet);
-            RegionUtil.setBorderRight(BorderStyle.DOUBLE, outerBlock3, sheet);
-
-            // 🔥 Set border color to BLACK
-            RegionUtil.setTopBorderColor(IndexedColors.BLACK.getIndex(), outerBlock3, sheet);
-            RegionUtil.setBottomBorderColor(IndexedColors.BLACK.getIndex(), outerBlock3, sheet);
-            RegionUtil.setLeftBorderColor(IndexedColors.BLACK.getIndex(), outerBlock3, sheet);
-            RegionUtil.setRightBorderColor(IndexedColors.BLACK.getIndex(), outerBlock3, sheet);
+            // 🔥 Double border with the border color set to BLACK
+            styles.outline(sheet, outerBlock3, BorderStyle.DOUBLE, IndexedColors.BLACK.getIndex());
 
 
             // Note and signatures - make sure first cell blank
@@ -525,8 +582,7 @@ public class TimesheetService {
             sheet.addMergedRegion(range);
             noteCell.setCellValue("Note: For Regular workday, Inclusive of 30 minutes of lunch break.");
 
-            CellStyle signNDateStyle = wb.createCellStyle();
-            headerStyle.setFont(hf);
+            CellStyle signNDateStyle = styles.style(StyleSpec.DEFAULT);
 
             r += 4;
             Row sig1 = sheet.createRow(r++);
@@ -582,7 +638,7 @@ public class TimesheetService {
                     Cell c = r1.getCell(col);
                     if (c == null) c = r1.createCell(col);
 
-                    patchGrayAndDoubleBorder(c, wb);
+                    patchGrayAndDoubleBorder(c, styles);
                 }
             }
 
@@ -595,38 +651,39 @@ public class TimesheetService {
 
 
 
-            // Auto-size a few columns
-            for (int i = 0; i <= 8; i++) {
-                sheet.autoSizeColumn(i);
-            }
-
-        // Save the workbook back to disk
-        try (FileOutputStream fos = new FileOutputStream(excelFile)) {
-            wb.write(fos);
-        }
-
-        // Write workbook to bytes
-        try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-                wb.write(bos);
-                return bos.toByteArray();
-        }
+            metrics.stop(render, GenerationMetrics.TIMESHEET, Phase.RENDER);
 
+            // Column widths
+            Timer.Sample autosize = metrics.start();
+            if (autoSizeColumns) {
+                for (int i = 0; i <= 8; i++) {
+                    sheet.autoSizeColumn(i);
+                }
+            } else {
+                // Same columns autoSizeColumn would size: cells outside merged regions.
+                // Labels, title, note and signatures are all merged, so the table decides.
+                ColumnWidths widths = new ColumnWidths()
+                        .fit(0, "        ")
+                        .fit(5, "YEAR", boldBlack).fit(5, String.valueOf(year))
+                        .fit(6, "MONTH", boldBlack).fit(6, mVal.getStringCellValue())
+                        .fit(6, "GRSE", whiteBold);
+                for (int i = 0; i < headers.length; i++) {
+                    widths.fit(i + 1, headers[i], FontSpec.DEFAULT.bold());
+                }
+                for (TimesheetRow tr : rows) {
+                    widths.fit(1, tr.dayName).fit(2, tr.date).fit(3, tr.inTime).fit(4, tr.outTime)
+                            .fit(5, tr.duration).fit(6, tr.activity).fit(7, tr.managerApproval).fit(8, tr.remarks);
+                }
+                widths.applyTo(sheet);
+            }
+            metrics.stop(autosize, GenerationMetrics.TIMESHEET, Phase.AUTOSIZE);
     }
 
-    private void patchGrayAndDoubleBorder(Cell cell, Workbook wb) {
-
-        CellStyle newStyle = wb.createCellStyle();
+    private void patchGrayAndDoubleBorder(Cell cell, StyleRegistry styles) {
 
-        // clone original style fully
-        if (cell.getCellStyle() != null) {
-            newStyle.cloneStyleFrom(cell.getCellStyle());
-        }
-
-        // Apply shading
-        newStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-        newStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-
-        cell.setCellStyle(newStyle);
+        // same style with shading applied, shared by every cell that looks alike
+        cell.setCellStyle(styles.derive(cell.getCellStyle(),
+                s -> s.fill(IndexedColors.GREY_25_PERCENT.getIndex())));
     }
 
 
@@ -663,171 +720,117 @@ public class TimesheetService {
         sheet.addMergedRegion(new CellRangeAddress(rowNum, rowNum, 3, 8));
     }
 
-    public byte[] extractSheetsForEmployee() throws Exception {
-
-
-
-        XSSFWorkbook sourceWorkbook;
-
-        try (FileInputStream fis = new FileInputStream(excelFile)) {
-            sourceWorkbook = new XSSFWorkbook(fis);
-        }
-
-        // Create new workbook in memory\
-        XSSFWorkbook destWorkbook = new XSSFWorkbook();
-
-        for (int i = 0; i < sourceWorkbook.getNumberOfSheets(); i++) {
-
-            Sheet src = sourceWorkbook.getSheetAt(i);
-
-            String name = src.getSheetName();
-
-            // match Sudhir, Sudip, etc.
-            if (name.startsWith(sheetName.split(", ")[0])) {
-                Sheet dest = destWorkbook.createSheet(name);
-                copySheetFully((XSSFSheet) src, (XSSFSheet) dest, destWorkbook);
-
-                // Auto-size a few columns
-                for (int c = 0; c <= 8; c++) {
-                    dest.autoSizeColumn(c);
-                }
+    // All months stored for one employee in the year
+    public void extractSheetsForEmployee(int year, String employeeId, OutputStream out) throws Exception {
+        assembleWorkbook(sheetStore.parts(year, employeeId), out);
+    }
 
-            }
+    // Every stored employee/month part of the year; fails before anything is written when there are none
+    public List<Path> yearParts(int year) throws IOException {
+        List<Path> parts = sheetStore.parts(year);
+        if (parts.isEmpty()) {
+            throw new IllegalArgumentException("No timesheets generated for year " + year);
         }
+        return parts;
+    }
 
+    // Yearly workbook put together from every stored employee/month part
+    public void assembleYearWorkbook(int year, OutputStream out) throws Exception {
+        assembleWorkbook(yearParts(year), out);
+    }
 
-
-
-        // return bytes
-        try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-            destWorkbook.write(bos);
-            destWorkbook.close();
-            sourceWorkbook.close();
-            return bos.toByteArray();
-        }
+    /**
+     * One workbook holding a sheet per stored part, in the given order, written straight to
+     * {@code out}. The out stream is left open.
+     */
+    public void assembleWorkbook(List<Path> parts, OutputStream out) throws Exception {
+        XSSFWorkbook destWorkbook = renderLimiter.call(() -> copyParts(parts));
+        // written after the permit is released: a slow client doesn't hold up other renders
+        serialize(destWorkbook, out);
     }
 
+    private XSSFWorkbook copyParts(List<Path> parts) throws Exception {
 
-    private void copySheetFully(XSSFSheet src, XSSFSheet dest, XSSFWorkbook destWb) throws Exception {
+        // Create new workbook in memory
+        XSSFWorkbook destWorkbook = new XSSFWorkbook();
+        StyleRegistry destStyles = new StyleRegistry(destWorkbook);
 
-        // 1️⃣ Column widths
-        for (int c = 0; c <= src.getRow(src.getFirstRowNum()).getLastCellNum(); c++) {
-            dest.setColumnWidth(c, src.getColumnWidth(c));
+        for (Path part : parts) {
+            copyPart(part, destStyles);
         }
+        return destWorkbook;
+    }
 
-        // 2️⃣ Merged regions
-        for (int i = 0; i < src.getNumMergedRegions(); i++) {
-            dest.addMergedRegion(src.getMergedRegion(i));
+    // writes and closes the workbook; out is left open
+    private void serialize(Workbook destWorkbook, OutputStream out) throws IOException {
+        Timer.Sample serialize = metrics.start();
+        CountingOutputStream counted = new CountingOutputStream(out);
+        try (destWorkbook) {
+            destWorkbook.write(counted);
+            metrics.sheets(GenerationMetrics.TIMESHEET, destWorkbook.getNumberOfSheets());
         }
+        metrics.stop(serialize, GenerationMetrics.TIMESHEET, Phase.SERIALIZE);
+        metrics.bytes(GenerationMetrics.TIMESHEET, counted.getByteCount());
+    }
 
-        // 3️⃣ Drawings / Images
-        copyPictures(src, dest);
-
-        // 4️⃣ Rows + cells
-        for (int r = 0; r <= src.getLastRowNum(); r++) {
-
-            XSSFRow srcRow = src.getRow(r);
-            if (srcRow == null) continue;
-
-            XSSFRow destRow = dest.createRow(r);
-            destRow.setHeight(srcRow.getHeight());
-
-            for (int c = 0; c < srcRow.getLastCellNum(); c++) {
-
-                XSSFCell oldCell = srcRow.getCell(c);
-                if (oldCell == null) continue;
-
-                XSSFCell newCell = destRow.createCell(c);
-
-                // Copy style (full clone)
-                newCell.setCellStyle(cloneCellStyleFull(destWb, oldCell.getCellStyle()));
-
-                // Copy cell comments
-                if (oldCell.getCellComment() != null) {
-                    newCell.setCellComment(oldCell.getCellComment());
-                }
+    // Returns the part with the digest of the bytes that were copied
+    private TimesheetSheetStore.Part copyPart(Path part, StyleRegistry destStyles) throws Exception {
 
-                // Copy Hyperlink
-                if (oldCell.getHyperlink() != null) {
-                    newCell.setHyperlink(oldCell.getHyperlink());
-                }
+        XSSFWorkbook sourceWorkbook;
 
-                // Copy cell value / formula
-                switch (oldCell.getCellType()) {
-                    case STRING -> newCell.setCellValue(oldCell.getRichStringCellValue());
-                    case NUMERIC -> newCell.setCellValue(oldCell.getNumericCellValue());
-                    case BOOLEAN -> newCell.setCellValue(oldCell.getBooleanCellValue());
-                    case FORMULA -> newCell.setCellFormula(oldCell.getCellFormula());
-                    case BLANK -> newCell.setBlank();
-                    default -> {}
+        Timer.Sample load = metrics.start();
+        byte[] content = Files.readAllBytes(part);
+        sourceWorkbook = new XSSFWorkbook(new ByteArrayInputStream(content));
+        metrics.stop(load, GenerationMetrics.TIMESHEET, Phase.LOAD);
+
+        try (sourceWorkbook) {
+            // a part holds exactly one sheet
+            XSSFSheet src = sourceWorkbook.getSheetAt(0);
+            Workbook destWorkbook = destStyles.workbook();
+            Sheet dest = destWorkbook.createSheet(uniqueSheetName(destWorkbook, src.getSheetName()));
+            Timer.Sample copy = metrics.start();
+            SheetCopier.copySheet(src, dest, destStyles);
+            metrics.stop(copy, GenerationMetrics.TIMESHEET, Phase.COPY);
+
+            // the part was sized when it was rendered and its widths were copied
+            if (autoSizeColumns) {
+                for (int c = 0; c <= 8; c++) {
+                    dest.autoSizeColumn(c);
                 }
             }
         }
+        return new TimesheetSheetStore.Part(part, TimesheetSheetStore.digest(content));
     }
 
+    // One employee's month, read with the event model straight into a streaming workbook. The
+    // employee's parts are distinct months, so their sheet names don't collide. A part is one
+    // month, so it is read into memory once, to copy exactly the bytes its digest is taken of.
+    private TimesheetSheetStore.Part streamPart(Path part, StyleRegistry destStyles) throws IOException {
 
+        Timer.Sample load = metrics.start();
+        byte[] content = Files.readAllBytes(part);
+        StreamingSheetSource source = StreamingSheetSource.open(new ByteArrayInputStream(content));
+        metrics.stop(load, GenerationMetrics.TIMESHEET, Phase.LOAD);
 
-    private XSSFCellStyle cloneCellStyleFull(XSSFWorkbook wb, CellStyle old) {
-
-        XSSFCellStyle newStyle = wb.createCellStyle();
-        if (old == null) return newStyle;
-
-        newStyle.cloneStyleFrom(old);
-
-        // Need to clone the font too
-        XSSFFont oldFont = ((XSSFCellStyle) old).getFont();
-        XSSFFont newFont = wb.createFont();
-        newFont.setBold(oldFont.getBold());
-        newFont.setColor(oldFont.getColor());
-        newFont.setFontHeight(oldFont.getFontHeight());
-        newFont.setFontName(oldFont.getFontName());
-        newFont.setItalic(oldFont.getItalic());
-        newFont.setUnderline(oldFont.getUnderline());
-
-        newStyle.setFont(newFont);
-
-        return newStyle;
+        try (source) {
+            Timer.Sample copy = metrics.start();
+            source.copySheets(name -> true, destStyles);
+            metrics.stop(copy, GenerationMetrics.TIMESHEET, Phase.COPY);
+        }
+        return new TimesheetSheetStore.Part(part, TimesheetSheetStore.digest(content));
     }
 
-    private void copyPictures(XSSFSheet src, XSSFSheet dest) throws Exception {
-
-        XSSFDrawing srcDrawing = src.getDrawingPatriarch();
-        if (srcDrawing == null) return;
-
-        XSSFDrawing destDrawing = dest.createDrawingPatriarch();
-
-        for (XSSFShape shape : srcDrawing.getShapes()) {
-
-            if (shape instanceof XSSFPicture srcPic) {
-
-                XSSFPictureData picData = srcPic.getPictureData();
-                XSSFClientAnchor srcAnchor = (XSSFClientAnchor) srcPic.getAnchor();
-
-                // copy the anchor exactly
-                XSSFClientAnchor newAnchor = (XSSFClientAnchor)
-                        dest.getWorkbook().getCreationHelper().createClientAnchor();
-
-                newAnchor.setAnchorType(srcAnchor.getAnchorType());
-                newAnchor.setCol1(srcAnchor.getCol1());
-                newAnchor.setRow1(srcAnchor.getRow1());
-                newAnchor.setCol2(srcAnchor.getCol2());
-                newAnchor.setRow2(srcAnchor.getRow2());
-                newAnchor.setDx1(srcAnchor.getDx1());
-                newAnchor.setDy1(srcAnchor.getDy1());
-                newAnchor.setDx2(srcAnchor.getDx2());
-                newAnchor.setDy2(srcAnchor.getDy2());
-
-                // Add picture
-                int picIndex = dest.getWorkbook()
-                        .addPicture(picData.getData(), picData.getPictureType());
-
-                XSSFPicture newPic = destDrawing.createPicture(newAnchor, picIndex);
-
-                // 🟢 NO resize() here — keeps original size + position exactly
-            }
+    // Two employees sharing a first name would produce the same sheet name in the yearly workbook
+    private static String uniqueSheetName(Workbook wb, String name) {
+        String candidate = name;
+        for (int n = 2; wb.getSheet(candidate) != null; n++) {
+            String suffix = " (" + n + ")";
+            candidate = name.substring(0, Math.min(name.length(), 31 - suffix.length())) + suffix;
         }
+        return candidate;
     }
 
-
-
+    // a built download and the parts it was assembled from
+    private record Built(byte[] content, List<TimesheetSheetStore.Part> parts) {
+    }
 }
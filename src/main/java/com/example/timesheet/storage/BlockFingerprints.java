@@ -0,0 +1,101 @@
+package com.example.timesheet.storage;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What was last written into each block (e.g. one employee's month) of the workbooks that
+ * are updated in place, so a request that would write the same content again can skip
+ * loading and saving the file. A fingerprint is the block's content in canonical form.
+ * <p>
+ * Fingerprints are kept with the file, in a {@code <file>.blocks} sidecar, so every replica
+ * sharing the volume sees what the others wrote. They are only trusted while the file is
+ * exactly as it was when they were recorded (same modification time and size); a file
+ * changed by anything else has none. Callers hold the file's {@link WorkbookLocks} lock,
+ * which covers the sidecar too.
+ */
+@Component
+public class BlockFingerprints {
+
+    private static final String SUFFIX = ".blocks";
+    private static final String MODIFIED = "file.modified";
+    private static final String SIZE = "file.size";
+    private static final String BLOCK = "block.";
+
+    /**
+     * Fingerprints of the blocks the file holds, by block; empty when they aren't known.
+     * The map is a copy, to update and pass back to {@link #written} after saving.
+     */
+    public Map<String, String> current(Path file) throws IOException {
+        Map<String, String> blocks = new HashMap<>();
+        BasicFileAttributes attrs;
+        Properties recorded = new Properties();
+        try (InputStream in = Files.newInputStream(sidecar(file))) {
+            attrs = attributes(file);
+            recorded.load(in);
+        } catch (NoSuchFileException e) {
+            return blocks;
+        } catch (IllegalArgumentException e) {
+            // a damaged sidecar only costs a rewrite
+            return blocks;
+        }
+
+        if (!String.valueOf(modified(attrs)).equals(recorded.getProperty(MODIFIED))
+                || !String.valueOf(attrs.size()).equals(recorded.getProperty(SIZE))) {
+            return blocks;
+        }
+        for (String name : recorded.stringPropertyNames()) {
+            if (name.startsWith(BLOCK)) {
+                blocks.put(name.substring(BLOCK.length()), recorded.getProperty(name));
+            }
+        }
+        return blocks;
+    }
+
+    // the file was just saved and now holds exactly these blocks' fingerprints
+    public void written(Path file, Map<String, String> blocks) throws IOException {
+        BasicFileAttributes attrs = attributes(file);
+        Properties recorded = new Properties();
+        recorded.setProperty(MODIFIED, String.valueOf(modified(attrs)));
+        recorded.setProperty(SIZE, String.valueOf(attrs.size()));
+        blocks.forEach((block, fingerprint) -> recorded.setProperty(BLOCK + block, fingerprint));
+
+        // replaced whole, so a crash leaves the old fingerprints, which no longer match the file
+        Path target = sidecar(file);
+        Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                recorded.store(out, null);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static BasicFileAttributes attributes(Path file) throws IOException {
+        return Files.readAttributes(file, BasicFileAttributes.class);
+    }
+
+    // the finest the file system reports, so a rewrite in the same millisecond still differs
+    private static long modified(BasicFileAttributes attrs) {
+        return attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+    }
+
+    private static Path sidecar(Path file) {
+        Path normalized = file.toAbsolutePath().normalize();
+        return normalized.resolveSibling(normalized.getFileName() + SUFFIX);
+    }
+}
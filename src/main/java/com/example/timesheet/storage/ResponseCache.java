@@ -0,0 +1,122 @@
+package com.example.timesheet.storage;
+
+import com.example.timesheet.repository.EmployeeChanged;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Generated downloads, addressed by their content: the key is a SHA-256 over everything
+ * the bytes are built from (see {@link Key}), so an identical request finds the bytes it
+ * got last time and anything that would change them finds nothing. The key doubles as
+ * the download's ETag.
+ * <p>
+ * Bounded by total size, least recently used first out. Entries of an employee whose
+ * record changes are dropped ({@link EmployeeChanged}); a max-bytes of 0 disables the cache.
+ */
+@Component
+public class ResponseCache {
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    public ResponseCache(@Value("${timesheet.response-cache.max-bytes:33554432}") long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("timesheet.response-cache.max-bytes must not be negative");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    public static Key key() {
+        return new Key();
+    }
+
+    // the cached download, or null
+    public byte[] get(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            return entry == null ? null : entry.content();
+        }
+    }
+
+    // the content is kept as is: callers hand over bytes they no longer modify
+    public void put(String key, String employeeId, byte[] content) {
+        if (content.length > maxBytes) return;
+
+        synchronized (entries) {
+            Entry previous = entries.put(key, new Entry(employeeId, content));
+            if (previous != null) bytes -= previous.content().length;
+            bytes += content.length;
+
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (bytes > maxBytes) {
+                bytes -= eldest.next().content().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    @EventListener
+    public void employeeChanged(EmployeeChanged event) {
+        synchronized (entries) {
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                if (entry.employeeId().equals(event.employeeId())) {
+                    bytes -= entry.content().length;
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private record Entry(String employeeId, byte[] content) {
+    }
+
+    /**
+     * SHA-256 over the inputs of a download, in the order they are added. Values are
+     * length-prefixed, so ("ab", "c") and ("a", "bc") differ.
+     */
+    public static final class Key {
+
+        private final MessageDigest digest;
+
+        private Key() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+
+        public Key add(String value) {
+            if (value == null) {
+                digest.update(ByteBuffer.allocate(4).putInt(-1).array());
+                return this;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            digest.update(ByteBuffer.allocate(4).putInt(utf8.length).array());
+            digest.update(utf8);
+            return this;
+        }
+
+        public Key add(long value) {
+            digest.update(ByteBuffer.allocate(8).putLong(value).array());
+            return this;
+        }
+
+        public String hex() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+}
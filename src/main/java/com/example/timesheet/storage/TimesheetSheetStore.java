@@ -0,0 +1,168 @@
+package com.example.timesheet.storage;
+
+import org.apache.poi.ss.usermodel.Workbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Keeps every employee/month timesheet as its own single-sheet workbook:
+ * <pre>
+ *   &lt;store.dir&gt;/&lt;year&gt;/&lt;employeeId&gt;/&lt;MM&gt;.xlsx
+ * </pre>
+ * (the employee id escaped, see {@link #safeName}).
+ * Writing a month only touches that month's file; yearly or per-employee
+ * workbooks are assembled from the parts when they are downloaded.
+ * <p>
+ * The SHA-256 of each part is recorded next to it ({@code <MM>.xlsx.sha256}), so what
+ * the parts hold can be compared without reading them.
+ */
+@Component
+public class TimesheetSheetStore {
+
+    private static final String PART_SUFFIX = ".xlsx";
+    private static final String DIGEST_SUFFIX = ".sha256";
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final Path root;
+    private final WorkbookLocks locks;
+
+    public TimesheetSheetStore(@Value("${timesheet.store.dir:timesheet-store}") String dir, WorkbookLocks locks) {
+        this.root = Paths.get(dir);
+        this.locks = locks;
+    }
+
+    public Path partFor(int year, String employeeId, int month) {
+        return employeeDir(year, employeeId).resolve(String.format("%02d%s", month, PART_SUFFIX));
+    }
+
+    /**
+     * Writes the part through a temp file in the same directory and moves it into place,
+     * so readers never see a half written workbook. Its digest is recorded first, both under
+     * the part's lock: a crash in between leaves a digest that matches no content, never
+     * content under another part's digest.
+     */
+    public Part write(int year, String employeeId, int month, Workbook wb) throws IOException {
+        Path part = partFor(year, employeeId, month);
+        Files.createDirectories(part.getParent());
+
+        Path tmp = Files.createTempFile(part.getParent(), "part-", ".tmp");
+        Path digestTmp = null;
+        try {
+            MessageDigest sha = sha256();
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(tmp), sha)) {
+                wb.write(out);
+            }
+            String digest = HexFormat.of().formatHex(sha.digest());
+            digestTmp = Files.writeString(Files.createTempFile(part.getParent(), "digest-", ".tmp"), digest);
+
+            try (WorkbookLocks.Held held = locks.lock(part)) {
+                Files.move(digestTmp, digestFor(part), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.move(tmp, part, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return new Part(part, digest);
+        } finally {
+            Files.deleteIfExists(tmp);
+            if (digestTmp != null) Files.deleteIfExists(digestTmp);
+        }
+    }
+
+    // parts of one employee, ordered by month, with the digests recorded when they were written
+    public List<Part> stored(int year, String employeeId) throws IOException {
+        List<Part> stored = new ArrayList<>();
+        for (Path part : parts(year, employeeId)) {
+            String digest;
+            try {
+                digest = Files.readString(digestFor(part));
+            } catch (NoSuchFileException e) {
+                // written before digests were recorded
+                digest = digest(Files.readAllBytes(part));
+            }
+            stored.add(new Part(part, digest));
+        }
+        return stored;
+    }
+
+    // the digest write() records for a part with this content
+    public static String digest(byte[] content) {
+        return HexFormat.of().formatHex(sha256().digest(content));
+    }
+
+    // parts of one employee, ordered by month
+    public List<Path> parts(int year, String employeeId) throws IOException {
+        return listParts(employeeDir(year, employeeId));
+    }
+
+    // parts of every employee in the year, grouped by employee and ordered by month
+    public List<Path> parts(int year) throws IOException {
+        Path yearDir = root.resolve(String.valueOf(year));
+        List<Path> result = new ArrayList<>();
+        if (!Files.isDirectory(yearDir)) return result;
+
+        try (Stream<Path> employees = Files.list(yearDir)) {
+            for (Path dir : employees.filter(Files::isDirectory).sorted().toList()) {
+                result.addAll(listParts(dir));
+            }
+        }
+        return result;
+    }
+
+    private List<Path> listParts(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) return new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(PART_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static Path digestFor(Path part) {
+        return part.resolveSibling(part.getFileName() + DIGEST_SUFFIX);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private Path employeeDir(int year, String employeeId) {
+        return root.resolve(String.valueOf(year)).resolve(safeName(employeeId));
+    }
+
+    /**
+     * Employee ids like "TRE-604" are kept as is; every other character is written as %XX per
+     * UTF-8 byte, "%" included, so no two ids share a directory ("A/B" -> "A%2FB", "A.B" ->
+     * "A%2EB", "A_B" stays). Ids that differ only in case still meet on a case-insensitive
+     * filesystem.
+     */
+    public static String safeName(String employeeId) {
+        StringBuilder sb = new StringBuilder(employeeId.length());
+        for (byte b : employeeId.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xFF);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_' || c == '-') {
+                sb.append(c);
+            } else {
+                sb.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+            }
+        }
+        return sb.toString();
+    }
+
+    // a stored part and the SHA-256 of its content
+    public record Part(Path file, String digest) {
+    }
+}
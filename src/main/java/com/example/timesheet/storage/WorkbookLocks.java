@@ -0,0 +1,95 @@
+package com.example.timesheet.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Locks for workbooks that are read, modified and written back in place, held across every
+ * instance of the application that shares the files (the deployment runs several replicas
+ * on one volume).
+ * <p>
+ * Within this JVM each file maps to one of a fixed set of fair locks, so writers of the same
+ * file queue up in arrival order while writers of other files (almost always) proceed in
+ * parallel; the stripe count bounds memory no matter how many files are touched over time.
+ * The holder of a stripe then takes an exclusive {@link FileChannel#lock()} on a
+ * {@code <file>.lock} sidecar, which other processes wait on. The sidecar is never deleted:
+ * removing a lock file that another process has open would let two holders in.
+ */
+@Component
+public class WorkbookLocks {
+
+    private static final String LOCK_SUFFIX = ".lock";
+
+    private final Lock[] stripes;
+
+    public WorkbookLocks(@Value("${timesheet.lock.stripes:64}") int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("timesheet.lock.stripes must be at least 1");
+        }
+        this.stripes = new Lock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock(true);
+        }
+    }
+
+    /**
+     * Blocks until this thread holds the file, against this and every other process.
+     * Close the returned lock to release it.
+     */
+    public Held lock(Path file) throws IOException {
+        Path normalized = file.toAbsolutePath().normalize();
+        Lock stripe = stripeFor(normalized.toString());
+        stripe.lock();
+        try {
+            FileChannel channel = FileChannel.open(normalized.resolveSibling(normalized.getFileName() + LOCK_SUFFIX),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            try {
+                // one holder per file in this JVM (the stripe), so this never overlaps a lock of our own
+                channel.lock();
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+            return new Held(stripe, channel);
+        } catch (IOException | RuntimeException e) {
+            stripe.unlock();
+            throw e;
+        }
+    }
+
+    // the same file always gets the same stripe, however the path was spelled
+    private Lock stripeFor(String key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return stripes[Math.floorMod(h, stripes.length)];
+    }
+
+    // a file held by the current thread
+    public static final class Held implements AutoCloseable {
+
+        private final Lock stripe;
+        private final FileChannel channel;
+
+        private Held(Lock stripe, FileChannel channel) {
+            this.stripe = stripe;
+            this.channel = channel;
+        }
+
+        // closing the channel releases the file lock
+        @Override
+        public void close() throws IOException {
+            try {
+                channel.close();
+            } finally {
+                stripe.unlock();
+            }
+        }
+    }
+}
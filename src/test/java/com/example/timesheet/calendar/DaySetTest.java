@@ -0,0 +1,73 @@
+package com.example.timesheet.calendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DateTimeException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DaySetTest {
+
+    private static final Function<String, IllegalArgumentException> BAD_FORMAT =
+            d -> new IllegalArgumentException("bad format: " + d);
+    private static final Function<String, IllegalArgumentException> OUTSIDE =
+            d -> new IllegalArgumentException("outside: " + d);
+
+    @Test
+    void holdsTheParsedDays() {
+        DaySet days = DaySet.parse(List.of("2025-01-31", "2025-01-01", "2025-01-15"), 2025, 1, BAD_FORMAT, OUTSIDE);
+
+        assertTrue(days.contains(1));
+        assertTrue(days.contains(15));
+        assertTrue(days.contains(31));
+        assertFalse(days.contains(2));
+        assertEquals("[1, 15, 31]", days.toString());
+    }
+
+    @Test
+    void noDatesIsEmpty() {
+        assertSame(DaySet.EMPTY, DaySet.parse(null, 2025, 1, BAD_FORMAT, OUTSIDE));
+        assertSame(DaySet.EMPTY, DaySet.parse(List.of(), 2025, 1, BAD_FORMAT, OUTSIDE));
+    }
+
+    @Test
+    void unionAndEquality() {
+        DaySet a = DaySet.parse(List.of("2025-02-01", "2025-02-02"), 2025, 2, BAD_FORMAT, OUTSIDE);
+        DaySet b = DaySet.parse(List.of("2025-02-02", "2025-02-28"), 2025, 2, BAD_FORMAT, OUTSIDE);
+
+        assertEquals("[1, 2, 28]", a.union(b).toString());
+        assertEquals(a, DaySet.parse(List.of("2025-02-02", "2025-02-01", "2025-02-01"), 2025, 2, BAD_FORMAT, OUTSIDE));
+        assertNotEquals(a, b);
+    }
+
+    @Test
+    void missingDateIsBadInput() {
+        List<String> dates = Arrays.asList("2025-01-01", null);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> DaySet.parse(dates, 2025, 1, BAD_FORMAT, OUTSIDE));
+        assertEquals("bad format: null", e.getMessage());
+
+        // without a format exception it is still an IllegalArgumentException, not an NPE
+        assertThrows(IllegalArgumentException.class, () -> DaySet.parse(dates, 2025, 1, null, OUTSIDE));
+    }
+
+    @Test
+    void malformedDate() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> DaySet.parse(List.of("2025-1-5"), 2025, 1, BAD_FORMAT, OUTSIDE));
+        assertEquals("bad format: 2025-1-5", e.getMessage());
+
+        assertThrows(DateTimeException.class, () -> DaySet.parse(List.of("2025-02-30"), 2025, 2, null, OUTSIDE));
+    }
+
+    @Test
+    void dateOutsideTheMonth() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> DaySet.parse(List.of("2025-01-31", "2025-02-01"), 2025, 1, BAD_FORMAT, OUTSIDE));
+        assertEquals("outside: 2025-02-01", e.getMessage());
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.timesheet.calendar;
+
+import com.example.timesheet.dto.TimesheetRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonthCalendarTest {
+
+    // March 2025: Saturdays on the 1st, 8th, 15th, 22nd and 29th; Sundays on the 2nd, 9th, 16th, 23rd and 30th
+    private static final int YEAR = 2025;
+    private static final int MARCH = 3;
+
+    @Test
+    void firstAndThirdSaturdaysOff() {
+        assertEquals(List.of(1, 15), saturdaysOff(TimesheetRequest.WEEKOFF_1ST_3RD));
+    }
+
+    @Test
+    void secondAndFourthSaturdaysOff() {
+        assertEquals(List.of(8, 22), saturdaysOff(TimesheetRequest.WEEKOFF_2ND_4TH));
+    }
+
+    @Test
+    void allSaturdaysOff() {
+        assertEquals(List.of(1, 8, 15, 22, 29), saturdaysOff(TimesheetRequest.ALL_WEEKOFF));
+    }
+
+    @Test
+    void everySaturdayWorked() {
+        assertEquals(List.of(), saturdaysOff(TimesheetRequest.EVERY_SATURDAY));
+        // anything that isn't a week-off policy works every Saturday
+        assertEquals(List.of(), saturdaysOff(0));
+        assertEquals(List.of(), saturdaysOff(99));
+    }
+
+    @Test
+    void dayTypesAndWeekOffs() {
+        MonthCalendar cal = MonthCalendar.of(YEAR, MARCH, TimesheetRequest.WEEKOFF_1ST_3RD);
+
+        assertEquals(31, cal.length());
+        assertEquals(MonthCalendar.SATURDAY_OFF, cal.type(1));
+        assertEquals(MonthCalendar.SUNDAY, cal.type(2));
+        assertEquals(MonthCalendar.WORKDAY, cal.type(3));
+        assertEquals(MonthCalendar.WORKING_SATURDAY, cal.type(8));
+
+        assertTrue(cal.isWeekOff(1));
+        assertTrue(cal.isWeekOff(2));
+        assertFalse(cal.isWeekOff(8));
+        assertTrue(cal.isSaturday(8));
+        assertFalse(cal.isSaturdayOff(8));
+    }
+
+    @Test
+    void labels() {
+        MonthCalendar cal = MonthCalendar.of(YEAR, MARCH, TimesheetRequest.EVERY_SATURDAY);
+
+        assertEquals(LocalDate.of(2025, 3, 7), cal.date(7));
+        assertEquals("07", cal.dayNumber(7));
+        assertEquals("Fri", cal.dayName(7));
+        assertEquals("07-Mar", cal.dateLabel(7));
+    }
+
+    @Test
+    void monthLengths() {
+        assertEquals(28, MonthCalendar.of(2025, 2, 0).length());
+        assertEquals(29, MonthCalendar.of(2024, 2, 0).length());
+        assertEquals(30, MonthCalendar.of(2025, 4, 0).length());
+    }
+
+    @Test
+    void sharedPerMonthAndPolicy() {
+        assertSame(MonthCalendar.of(YEAR, MARCH, TimesheetRequest.ALL_WEEKOFF),
+                MonthCalendar.of(YEAR, MARCH, TimesheetRequest.ALL_WEEKOFF));
+        assertNotSame(MonthCalendar.of(YEAR, MARCH, TimesheetRequest.ALL_WEEKOFF),
+                MonthCalendar.of(YEAR, MARCH, TimesheetRequest.WEEKOFF_1ST_3RD));
+    }
+
+    @Test
+    void rejectsInvalidMonth() {
+        assertThrows(IllegalArgumentException.class, () -> MonthCalendar.of(YEAR, 13, 0));
+        assertThrows(IllegalArgumentException.class, () -> MonthCalendar.of(YEAR, 0, 0));
+    }
+
+    private static List<Integer> saturdaysOff(int policy) {
+        MonthCalendar cal = MonthCalendar.of(YEAR, MARCH, policy);
+        List<Integer> days = new ArrayList<>();
+        for (int day = 1; day <= cal.length(); day++) {
+            if (cal.isSaturdayOff(day)) days.add(day);
+        }
+        return days;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.timesheet.calendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonthHolidaysTest {
+
+    @Test
+    void remarksArePairedByPositionWhateverTheDateOrder() {
+        MonthHolidays holidays = MonthHolidays.parse(2025, 1,
+                List.of("2025-01-14", "2025-01-03"), List.of("Fourteen", "Three"));
+
+        assertEquals("Three", holidays.remark(3));
+        assertEquals("Fourteen", holidays.remark(14));
+        assertTrue(holidays.contains(3));
+        assertFalse(holidays.contains(4));
+        assertEquals("", holidays.remark(4));
+    }
+
+    @Test
+    void dateListedTwiceKeepsItsFirstRemark() {
+        MonthHolidays holidays = MonthHolidays.parse(2025, 1,
+                List.of("2025-01-14", "2025-01-03", "2025-01-14"), List.of("First", "Three", "Second"));
+
+        assertEquals("First", holidays.remark(14));
+        assertEquals("Three", holidays.remark(3));
+    }
+
+    @Test
+    void missingRemarksAreBlank() {
+        MonthHolidays holidays = MonthHolidays.parse(2025, 1,
+                List.of("2025-01-01", "2025-01-02", "2025-01-03"), Arrays.asList("New Year", null));
+
+        assertEquals("New Year", holidays.remark(1));
+        assertTrue(holidays.contains(2));
+        assertEquals("", holidays.remark(2));
+        assertTrue(holidays.contains(3));
+        assertEquals("", holidays.remark(3));
+
+        assertTrue(MonthHolidays.parse(2025, 1, List.of("2025-01-05"), null).contains(5));
+    }
+
+    @Test
+    void noDatesNoHolidays() {
+        MonthHolidays holidays = MonthHolidays.parse(2025, 1, null, List.of("ignored"));
+        for (int day = 1; day <= 31; day++) {
+            assertFalse(holidays.contains(day));
+        }
+    }
+
+    @Test
+    void rejectsDatesOutsideTheMonth() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> MonthHolidays.parse(2025, 1, List.of("2025-02-14"), List.of("x")));
+        assertEquals("Holiday 2025-02-14 doesn't belong to month 1/2025", e.getMessage());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> MonthHolidays.parse(2025, 1, List.of("2024-01-14"), List.of("x")));
+    }
+
+    @Test
+    void rejectsMissingAndMalformedDates() {
+        assertThrows(IllegalArgumentException.class,
+                () -> MonthHolidays.parse(2025, 1, Arrays.asList("2025-01-01", null), null));
+        assertThrows(DateTimeParseException.class,
+                () -> MonthHolidays.parse(2025, 1, List.of("14/01/2025"), null));
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.timesheet.config;
+
+import com.example.timesheet.storage.TimesheetSheetStore;
+import com.example.timesheet.storage.WorkbookLocks;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LegacyTimesheetImportTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void importsEachSheetAsItsMonthOnce() throws Exception {
+        Path legacy = dir.resolve("timesheet-2025.xlsx");
+        try (XSSFWorkbook wb = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(legacy)) {
+            legacySheet(wb, "Sudhir, Jan 2025", "13536906", "January");
+            legacySheet(wb, "Sudhir, Feb 2025", "13536906", "February");
+            legacySheet(wb, "Niraj, Jan 2025", "TRE-604", "January");
+            legacySheet(wb, "Notes", null, null);
+            wb.write(out);
+        }
+        TimesheetSheetStore store = new TimesheetSheetStore(dir.resolve("store").toString(), new WorkbookLocks(16));
+
+        // a month generated after the switch is newer than the legacy sheet
+        try (XSSFWorkbook newer = new XSSFWorkbook()) {
+            newer.createSheet("Niraj, Jan 2025").createRow(0).createCell(0).setCellValue("newer");
+            store.write(2025, "TRE-604", 1, newer);
+        }
+
+        new LegacyTimesheetImport(store, dir.toString()).run();
+
+        assertFalse(Files.exists(legacy));
+        assertTrue(Files.exists(dir.resolve("timesheet-2025.xlsx.imported")));
+        assertEquals(2, store.parts(2025, "13536906").size());
+        assertEquals("February", valueOf(store.partFor(2025, "13536906", 2), 17, 6));
+        assertEquals("newer", valueOf(store.partFor(2025, "TRE-604", 1), 0, 0));
+
+        // nothing left to import
+        new LegacyTimesheetImport(store, dir.toString()).run();
+        assertEquals(3, store.parts(2025).size());
+    }
+
+    @Test
+    void importsNothingUnlessADirectoryIsSet() throws Exception {
+        Path legacy = dir.resolve("timesheet-2025.xlsx");
+        try (XSSFWorkbook wb = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(legacy)) {
+            legacySheet(wb, "Sudhir, Jan 2025", "13536906", "January");
+            wb.write(out);
+        }
+        TimesheetSheetStore store = new TimesheetSheetStore(dir.resolve("store").toString(), new WorkbookLocks(16));
+
+        new LegacyTimesheetImport(store, "").run();
+
+        assertTrue(Files.exists(legacy));
+        assertTrue(store.parts(2025).isEmpty());
+    }
+
+    // the parts of the legacy layout the import reads: employee id label/value and the month
+    private static void legacySheet(XSSFWorkbook wb, String name, String employeeId, String month) {
+        Sheet sheet = wb.createSheet(name);
+        if (employeeId != null) {
+            Row id = sheet.createRow(6);
+            id.createCell(1).setCellValue("Employee ID:");
+            id.createCell(3).setCellValue(employeeId);
+        }
+        if (month != null) {
+            sheet.createRow(17).createCell(6).setCellValue(month);
+        }
+    }
+
+    private static String valueOf(Path part, int row, int col) throws Exception {
+        try (InputStream in = Files.newInputStream(part); XSSFWorkbook wb = new XSSFWorkbook(in)) {
+            return wb.getSheetAt(0).getRow(row).getCell(col).getStringCellValue();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.timesheet.controller;
+
+import com.example.timesheet.dto.AttendanceRangeRequest;
+import com.example.timesheet.dto.AttendanceRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestValidationTest {
+
+    @Test
+    void holidaysAndRemarksMustPairUp() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> RequestValidation.checkHolidayRemarks(List.of("2025-01-01", "2025-01-26"), List.of("New Year")));
+        assertEquals("Holidays and Remarks must have same count", e.getMessage());
+
+        assertDoesNotThrow(() -> RequestValidation.checkHolidayRemarks(List.of("2025-01-01"), List.of("New Year")));
+        // either list may be left out
+        assertDoesNotThrow(() -> RequestValidation.checkHolidayRemarks(List.of("2025-01-01"), null));
+        assertDoesNotThrow(() -> RequestValidation.checkHolidayRemarks(null, List.of("New Year")));
+    }
+
+    @Test
+    void namesTheFieldWithABadDate() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> RequestValidation.validateDateList(List.of("01-02-2025"), YearMonth.of(2025, 2), "leaveDates"));
+        assertEquals("leaveDates contains invalid date format: 01-02-2025", e.getMessage());
+
+        e = assertThrows(IllegalArgumentException.class,
+                () -> RequestValidation.validateDateList(List.of("2025-03-01"), YearMonth.of(2025, 2), "compOff"));
+        assertEquals("compOff contains date not matching the request year/month: 2025-03-01", e.getMessage());
+    }
+
+    @Test
+    void missingDateIsBadInput() {
+        AttendanceRequest req = request(5);
+        req.weekOffDates = Arrays.asList("2025-05-03", null);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> RequestValidation.validateDates(req));
+        assertEquals("weekOffDates contains invalid date format: null", e.getMessage());
+    }
+
+    @Test
+    void rangeListsEachMonthOnce() {
+        AttendanceRangeRequest range = new AttendanceRangeRequest();
+        range.employeeId = "E1";
+        range.year = 2025;
+        range.months = List.of(month(1), month(2), month(1));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> RequestValidation.validateRange(range));
+        assertEquals("Month 1 is listed more than once", e.getMessage());
+
+        range.months = List.of(month(1), month(2));
+        assertDoesNotThrow(() -> RequestValidation.validateRange(range));
+    }
+
+    @Test
+    void rangeChecksEveryMonthsDates() {
+        AttendanceRangeRequest.MonthInput march = month(3);
+        march.publicHolidays = List.of("2025-04-01");
+        AttendanceRangeRequest range = new AttendanceRangeRequest();
+        range.employeeId = "E1";
+        range.year = 2025;
+        range.months = List.of(month(2), march);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> RequestValidation.validateRange(range));
+        assertEquals("publicHolidays contains date not matching the request year/month: 2025-04-01", e.getMessage());
+    }
+
+    private static AttendanceRequest request(int month) {
+        AttendanceRequest req = new AttendanceRequest();
+        req.employeeId = "E1";
+        req.year = 2025;
+        req.month = month;
+        return req;
+    }
+
+    private static AttendanceRangeRequest.MonthInput month(int month) {
+        AttendanceRangeRequest.MonthInput m = new AttendanceRangeRequest.MonthInput();
+        m.month = month;
+        return m;
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.timesheet.excel;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SheetScopedWorkbookTest {
+
+    private static final List<String> EMPLOYEES = List.of("Alice", "Bob", "Carol");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void updatesOneSheetAndKeepsTheOthers() throws Exception {
+        Path file = workbook();
+        Path updated = dir.resolve("updated.xlsx");
+
+        try (SheetScopedWorkbook scoped = SheetScopedWorkbook.open(file, "bob")) {
+            assertNotNull(scoped);
+            assertEquals(1, scoped.workbook().getNumberOfSheets());
+            assertEquals("Bob", scoped.sheet().getSheetName());
+
+            // a new string and a new style, appended to the shared parts
+            Cell cell = scoped.sheet().getRow(1).createCell(2);
+            cell.setCellValue("Only Bob");
+            cell.setCellStyle(style(scoped.workbook(), IndexedColors.RED, true));
+            scoped.sheet().getRow(0).getCell(0).setCellValue("Bob, updated");
+
+            assertTrue(scoped.canWriteBack());
+            try (OutputStream out = Files.newOutputStream(updated)) {
+                scoped.writeTo(out);
+            }
+        }
+
+        try (InputStream in = Files.newInputStream(updated);
+             XSSFWorkbook wb = new XSSFWorkbook(in)) {
+            assertEquals(EMPLOYEES, List.of(wb.getSheetName(0), wb.getSheetName(1), wb.getSheetName(2)));
+
+            for (String other : List.of("Alice", "Carol")) {
+                Sheet sheet = wb.getSheet(other);
+                assertEquals(other, sheet.getRow(0).getCell(0).getStringCellValue());
+                assertEquals("Present", sheet.getRow(1).getCell(0).getStringCellValue());
+                assertEquals(8.0, sheet.getRow(1).getCell(1).getNumericCellValue());
+                assertStyle(wb, sheet.getRow(0).getCell(0), IndexedColors.LIGHT_GREEN, true);
+                assertStyle(wb, sheet.getRow(1).getCell(0), IndexedColors.YELLOW, false);
+            }
+
+            Sheet bob = wb.getSheet("Bob");
+            assertEquals("Bob, updated", bob.getRow(0).getCell(0).getStringCellValue());
+            assertEquals("Present", bob.getRow(1).getCell(0).getStringCellValue());
+            assertEquals("Only Bob", bob.getRow(1).getCell(2).getStringCellValue());
+            assertStyle(wb, bob.getRow(1).getCell(2), IndexedColors.RED, true);
+            assertStyle(wb, bob.getRow(0).getCell(0), IndexedColors.LIGHT_GREEN, true);
+        }
+
+        // the other sheets are copied as they were, so their indexes into the shared parts must still hold
+        try (ZipFile before = new ZipFile(file.toFile()); ZipFile after = new ZipFile(updated.toFile())) {
+            assertArrayEquals(raw(before, "xl/worksheets/sheet1.xml"), raw(after, "xl/worksheets/sheet1.xml"));
+            assertArrayEquals(raw(before, "xl/worksheets/sheet3.xml"), raw(after, "xl/worksheets/sheet3.xml"));
+        }
+        try (InputStream in = Files.newInputStream(file);
+             XSSFWorkbook original = new XSSFWorkbook(in);
+             InputStream updatedIn = Files.newInputStream(updated);
+             XSSFWorkbook wb = new XSSFWorkbook(updatedIn)) {
+            var strings = original.getSharedStringSource();
+            for (int i = 0; i < strings.getUniqueCount(); i++) {
+                assertEquals(strings.getItemAt(i).getString(), wb.getSharedStringSource().getItemAt(i).getString());
+            }
+            for (int i = 0; i < original.getNumCellStyles(); i++) {
+                CellStyle was = original.getCellStyleAt(i);
+                CellStyle is = wb.getCellStyleAt(i);
+                assertEquals(was.getFontIndex(), is.getFontIndex());
+                assertEquals(was.getFillForegroundColor(), is.getFillForegroundColor());
+            }
+        }
+    }
+
+    @Test
+    void newPartsCantBeMergedBack() throws Exception {
+        Path file = workbook();
+
+        try (SheetScopedWorkbook scoped = SheetScopedWorkbook.open(file, "Bob")) {
+            // the sheet's first comment adds a comments part and a drawing
+            Drawing<?> drawing = scoped.sheet().createDrawingPatriarch();
+            ClientAnchor anchor = scoped.workbook().getCreationHelper().createClientAnchor();
+            anchor.setRow1(1);
+            anchor.setCol1(1);
+            Comment comment = drawing.createCellComment(anchor);
+            comment.setString(scoped.workbook().getCreationHelper().createRichTextString("half day"));
+            scoped.sheet().getRow(1).getCell(1).setCellComment(comment);
+
+            assertFalse(scoped.canWriteBack());
+            assertThrows(IllegalStateException.class, () -> scoped.writeTo(OutputStream.nullOutputStream()));
+        }
+    }
+
+    @Test
+    void sharedPartsMustOnlyGrow() throws Exception {
+        Path file = workbook();
+
+        try (SheetScopedWorkbook scoped = SheetScopedWorkbook.open(file, "Bob")) {
+            scoped.sheet().getRow(0).getCell(0).setCellValue("Bob, updated");
+
+            // Alice's sheet now uses a style and a string the opened workbook doesn't have,
+            // as if they had been dropped from the shared parts
+            try (InputStream in = Files.newInputStream(file);
+                 XSSFWorkbook wb = new XSSFWorkbook(in)) {
+                Cell cell = wb.getSheet("Alice").getRow(1).createCell(2);
+                cell.setCellValue("Only Alice");
+                cell.setCellStyle(style(wb, IndexedColors.BLUE, false));
+                try (OutputStream out = Files.newOutputStream(file)) {
+                    wb.write(out);
+                }
+            }
+
+            assertFalse(scoped.canWriteBack());
+        }
+    }
+
+    @Test
+    void missingSheetIsNotScoped() throws Exception {
+        assertNull(SheetScopedWorkbook.open(workbook(), "Dave"));
+    }
+
+    @Test
+    void definedNamesAreNotScoped() throws Exception {
+        Path file = dir.resolve("named.xlsx");
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            wb.createSheet("Alice").createRow(0).createCell(0).setCellValue(1);
+            wb.createSheet("Bob").createRow(0).createCell(0).setCellValue(2);
+            Name name = wb.createName();
+            name.setNameName("Total");
+            name.setRefersToFormula("Bob!$A$1");
+            try (OutputStream out = Files.newOutputStream(file)) {
+                wb.write(out);
+            }
+        }
+
+        assertNull(SheetScopedWorkbook.open(file, "Alice"));
+    }
+
+    @Test
+    void temporaryFilesAreRemoved() throws Exception {
+        Path file = workbook();
+        long before = temporaryFiles();
+
+        try (SheetScopedWorkbook scoped = SheetScopedWorkbook.open(file, "Carol")) {
+            scoped.sheet().getRow(0).getCell(0).setCellValue("Carol, updated");
+            scoped.writeTo(OutputStream.nullOutputStream());
+        }
+
+        assertEquals(before, temporaryFiles());
+    }
+
+    // one sheet per employee, with strings shared between them and two styles each
+    private Path workbook() throws Exception {
+        Path file = dir.resolve("attendance.xlsx");
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            CellStyle header = style(wb, IndexedColors.LIGHT_GREEN, true);
+            CellStyle status = style(wb, IndexedColors.YELLOW, false);
+            for (String employee : EMPLOYEES) {
+                Sheet sheet = wb.createSheet(employee);
+                Cell name = sheet.createRow(0).createCell(0);
+                name.setCellValue(employee);
+                name.setCellStyle(header);
+                Row row = sheet.createRow(1);
+                row.createCell(0).setCellValue("Present");
+                row.getCell(0).setCellStyle(status);
+                row.createCell(1).setCellValue(8.0);
+            }
+            try (OutputStream out = Files.newOutputStream(file)) {
+                wb.write(out);
+            }
+        }
+        return file;
+    }
+
+    private static CellStyle style(Workbook wb, IndexedColors fill, boolean bold) {
+        Font font = wb.createFont();
+        font.setBold(bold);
+        CellStyle style = wb.createCellStyle();
+        style.setFont(font);
+        style.setFillForegroundColor(fill.getIndex());
+        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        return style;
+    }
+
+    private static void assertStyle(Workbook wb, Cell cell, IndexedColors fill, boolean bold) {
+        assertEquals(fill.getIndex(), cell.getCellStyle().getFillForegroundColor());
+        assertEquals(bold, wb.getFontAt(cell.getCellStyle().getFontIndex()).getBold());
+    }
+
+    private static byte[] raw(ZipFile zip, String part) throws Exception {
+        ZipArchiveEntry entry = zip.getEntry(part);
+        try (InputStream in = zip.getInputStream(entry)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static long temporaryFiles() throws Exception {
+        try (Stream<Path> files = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(f -> f.getFileName().toString().startsWith("sheet-scoped")).count();
+        }
+    }
+}
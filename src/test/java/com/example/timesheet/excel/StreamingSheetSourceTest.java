@@ -0,0 +1,48 @@
+package com.example.timesheet.excel;
+
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingSheetSourceTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void copiesTheUsedColumnsAndCellValues() throws Exception {
+        Path file = dir.resolve("source.xlsx");
+        try (XSSFWorkbook wb = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = wb.createSheet("Data");
+            sheet.setColumnWidth(1, 20 * 256);
+            Row row = sheet.createRow(0);
+            row.createCell(0).setCellValue("text");
+            row.createCell(1).setCellErrorValue(FormulaError.NA.getCode());
+            wb.createSheet("Empty");
+            wb.write(out);
+        }
+
+        try (StreamingSheetSource source = StreamingSheetSource.open(file); XSSFWorkbook dest = new XSSFWorkbook()) {
+            List<Sheet> copied = source.copySheets(name -> true, new StyleRegistry(dest));
+
+            XSSFSheet data = (XSSFSheet) copied.get(0);
+            assertEquals("text", data.getRow(0).getCell(0).getStringCellValue());
+            Cell error = data.getRow(0).getCell(1);
+            assertEquals(CellType.ERROR, error.getCellType());
+            assertEquals(FormulaError.NA.getCode(), error.getErrorCellValue());
+            assertEquals(20 * 256, data.getColumnWidth(1));
+            // no width is set past the last column with a cell, nor on a sheet without cells
+            assertNull(data.getColumnHelper().getColumn(2, false));
+            assertNull(((XSSFSheet) copied.get(1)).getColumnHelper().getColumn(0, false));
+        }
+    }
+}
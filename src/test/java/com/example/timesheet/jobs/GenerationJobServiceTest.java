@@ -0,0 +1,103 @@
+package com.example.timesheet.jobs;
+
+import com.example.timesheet.exception.ApiError;
+import com.example.timesheet.exception.GlobalExceptionHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationJobServiceTest {
+
+    @TempDir
+    Path dir;
+
+    // one running job and one queued, like timesheet.jobs.threads=1 and queue-capacity=1
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void fullQueueIsTooManyRequests() throws Exception {
+        GenerationJobService jobs = new GenerationJobService(executor, 30, dir.toString());
+        CountDownLatch release = new CountDownLatch(1);
+        GenerationJobService.Work blocked = out -> release.await();
+
+        GenerationJob running = jobs.submit("test", "a.xlsx", "application/zip", blocked);
+        GenerationJob queued = jobs.submit("test", "b.xlsx", "application/zip", blocked);
+
+        RejectedExecutionException e = assertThrows(RejectedExecutionException.class,
+                () -> jobs.submit("test", "c.xlsx", "application/zip", blocked));
+        release.countDown();
+
+        // the rejected job isn't kept, the others are
+        assertTrue(jobs.find(running.getId()).isPresent());
+        assertTrue(jobs.find(queued.getId()).isPresent());
+
+        ResponseEntity<ApiError> response = new GlobalExceptionHandler()
+                .handleRejected(e, new MockHttpServletRequest("POST", "/api/jobs/timesheet"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertNotNull(response.getHeaders().getFirst("Retry-After"));
+    }
+
+    @Test
+    void expiredJobsAreEvicted() throws Exception {
+        GenerationJobService jobs = new GenerationJobService(executor, 0, dir.toString());
+        GenerationJob job = finished(jobs);
+        Path result = job.getResult();
+
+        finished(jobs);
+
+        assertTrue(jobs.find(job.getId()).isEmpty());
+        assertFalse(Files.exists(result));
+        assertFalse(job.pin());
+    }
+
+    @Test
+    void downloadKeepsTheResult() throws Exception {
+        GenerationJobService jobs = new GenerationJobService(executor, 0, dir.toString());
+        GenerationJob job = finished(jobs);
+        Path result = job.getResult();
+
+        assertTrue(job.pin());
+        // expired, but still being sent
+        finished(jobs);
+        assertTrue(jobs.find(job.getId()).isPresent());
+        assertTrue(Files.exists(result));
+
+        job.unpin();
+        finished(jobs);
+        assertTrue(jobs.find(job.getId()).isEmpty());
+        assertFalse(Files.exists(result));
+    }
+
+    // a job that has run to DONE and is already past a 0 minute retention
+    private static GenerationJob finished(GenerationJobService jobs) throws InterruptedException {
+        GenerationJob job = jobs.submit("test", "a.xlsx", "application/zip", out -> out.write(1));
+        Instant deadline = Instant.now().plus(Duration.ofSeconds(10));
+        while (job.getStatus() != GenerationJob.Status.DONE) {
+            assertTrue(Instant.now().isBefore(deadline), "job didn't finish");
+            Thread.sleep(5);
+        }
+        Thread.sleep(5);
+        return job;
+    }
+}
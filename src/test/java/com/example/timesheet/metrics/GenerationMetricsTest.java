@@ -0,0 +1,34 @@
+package com.example.timesheet.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final GenerationMetrics metrics = new GenerationMetrics(registry);
+
+    @Test
+    void recordsIntoOneMeterPerWorkbookAndPhase() {
+        for (int i = 0; i < 3; i++) {
+            metrics.stop(metrics.start(), GenerationMetrics.TIMESHEET, GenerationMetrics.Phase.RENDER);
+            metrics.bytes(GenerationMetrics.TIMESHEET, 100);
+            metrics.cached(GenerationMetrics.TIMESHEET);
+        }
+        metrics.stop(metrics.start(), GenerationMetrics.TIMESHEET, GenerationMetrics.Phase.WRITE);
+        metrics.stop(metrics.start(), GenerationMetrics.TEAM, GenerationMetrics.Phase.RENDER);
+
+        assertEquals(3, registry.get("timesheet.generation.phase")
+                .tags("workbook", "timesheet", "phase", "render").timer().count());
+        assertEquals(1, registry.get("timesheet.generation.phase")
+                .tags("workbook", "timesheet", "phase", "write").timer().count());
+        assertEquals(1, registry.get("timesheet.generation.phase")
+                .tags("workbook", "team", "phase", "render").timer().count());
+        assertEquals(300.0, registry.get("timesheet.generation.bytes").tag("workbook", "timesheet").summary().totalAmount());
+        assertEquals(3.0, registry.get("timesheet.generation.cached").tag("workbook", "timesheet").counter().count());
+        // phases a workbook never went through are not published
+        assertNull(registry.find("timesheet.generation.phase").tags("workbook", "team", "phase", "write").timer());
+    }
+}
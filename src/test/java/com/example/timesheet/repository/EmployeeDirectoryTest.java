@@ -0,0 +1,61 @@
+package com.example.timesheet.repository;
+
+import com.example.timesheet.entity.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class EmployeeDirectoryTest {
+
+    private final EmployeeRepository repo = mock(EmployeeRepository.class);
+    private final List<Object> events = new ArrayList<>();
+    private final EmployeeDirectory directory = new EmployeeDirectory(repo, events::add, 2);
+
+    @Test
+    void lookupsAreCachedAsCopies() {
+        when(repo.findByEmployeeId("E1")).thenReturn(Optional.of(new Employee("Sudhir Kumar", "E1", "s@example.com", "21-Feb-2022")));
+
+        Employee first = directory.find("E1").orElseThrow();
+        first.setEmployeeName("Changed by a caller");
+        Employee second = directory.find("E1").orElseThrow();
+
+        assertNotSame(first, second);
+        assertEquals("Sudhir Kumar", second.getEmployeeName());
+        verify(repo, times(1)).findByEmployeeId("E1");
+    }
+
+    @Test
+    void saveIsWrittenThroughAsASnapshot() {
+        when(repo.save(any())).thenAnswer(call -> call.getArgument(0));
+
+        Employee saved = directory.save(new Employee("Sudip Kundu", "E2", "d@example.com", "05-Oct-2020"));
+        // e.g. an entity JPA still manages, changed after the save
+        saved.setEmail("changed@example.com");
+
+        assertEquals("d@example.com", directory.find("E2").orElseThrow().getEmail());
+        verify(repo, never()).findByEmployeeId("E2");
+        assertEquals(List.of(new EmployeeChanged("E2")), events);
+    }
+
+    @Test
+    void leastRecentlyUsedIsDropped() {
+        for (String id : List.of("A", "B", "C")) {
+            when(repo.findByEmployeeId(id)).thenReturn(Optional.of(new Employee(id, id, id + "@example.com", "01-Jan-2020")));
+        }
+        directory.find("A");
+        directory.find("B");
+        directory.find("A");
+        directory.find("C");   // over capacity 2: B goes
+
+        directory.find("A");
+        directory.find("B");
+        verify(repo, times(1)).findByEmployeeId("A");
+        verify(repo, times(2)).findByEmployeeId("B");
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.timesheet.service;
+
+import com.example.timesheet.dto.AttendanceRequest;
+import com.example.timesheet.entity.Employee;
+import com.example.timesheet.metrics.GenerationMetrics;
+import com.example.timesheet.repository.EmployeeDirectory;
+import com.example.timesheet.repository.EmployeeRepository;
+import com.example.timesheet.storage.BlockFingerprints;
+import com.example.timesheet.storage.WorkbookLocks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AttendanceServiceTest {
+
+    // the service writes attendance-<year>.xlsx to the working directory; far enough out not to touch a real one
+    private static final int YEAR = 2098;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private AttendanceService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        deleteWorkbook();
+        EmployeeRepository repo = mock(EmployeeRepository.class);
+        when(repo.findByEmployeeId("E1")).thenReturn(Optional.of(new Employee("Sudhir Kumar", "E1", "s@example.com", "21-Feb-2022")));
+        when(repo.findByEmployeeId("E2")).thenReturn(Optional.of(new Employee("Sudip Kundu", "E2", "d@example.com", "05-Oct-2020")));
+        service = new AttendanceService(new EmployeeDirectory(repo, event -> { }, 16), new WorkbookLocks(4),
+                new RenderLimiter(0), new BlockFingerprints(), new GenerationMetrics(registry), false);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        deleteWorkbook();
+    }
+
+    @Test
+    void sendsOnlyTheEmployeesSheet() throws Exception {
+        service.generateAttendance(request("E2", 1));
+        AttendanceSheet generated = service.generateAttendance(request("E1", 1));
+
+        Workbook rendered = service.renderEmployeeSheet(generated);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeEmployeeSheet(rendered, out);
+
+        try (XSSFWorkbook sent = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(1, sent.getNumberOfSheets());
+            assertEquals("Sudhir", sent.getSheetName(0));
+        }
+    }
+
+    @Test
+    void updatesAnotherMonthInPlace() throws Exception {
+        service.generateAttendance(request("E1", 1));
+        service.generateAttendance(request("E2", 1));
+        AttendanceSheet generated = service.generateAttendance(request("E1", 2));
+
+        try (XSSFWorkbook wb = new XSSFWorkbook(workbook().toFile())) {
+            assertEquals(2, wb.getNumberOfSheets());
+            assertEquals(generated.sheetName(), wb.getSheetName(0));
+        }
+    }
+
+    @Test
+    void repeatWritesNothing() throws Exception {
+        service.generateAttendance(request("E1", 1));
+        Path file = workbook();
+        byte[] before = Files.readAllBytes(file);
+
+        service.generateAttendance(request("E1", 1));
+
+        assertArrayEquals(before, Files.readAllBytes(file));
+        assertEquals(1.0, unchanged());
+    }
+
+    @Test
+    void unreadableWorkbookFailsBeforeAnythingIsSent() throws Exception {
+        Files.write(workbook(), new byte[]{1, 2, 3});
+
+        // thrown by the render, which runs before the response is committed
+        assertThrows(Exception.class, () -> service.renderEmployeeSheet(new AttendanceSheet(workbook().toFile(), "Sudhir")));
+    }
+
+    private double unchanged() {
+        Counter counter = registry.find("timesheet.generation.unchanged").counter();
+        return counter == null ? 0.0 : counter.count();
+    }
+
+    private static AttendanceRequest request(String employeeId, int month) {
+        AttendanceRequest req = new AttendanceRequest();
+        req.employeeId = employeeId;
+        req.year = YEAR;
+        req.month = month;
+        req.leaveDates = List.of(String.format("%d-%02d-05", YEAR, month));
+        req.saturdayWeekoff = AttendanceRequest.ALL_WEEKOFF;
+        return req;
+    }
+
+    private static Path workbook() {
+        return new File(String.format("attendance-%d.xlsx", YEAR)).toPath();
+    }
+
+    // the workbook and its lock and fingerprint sidecars
+    private static void deleteWorkbook() throws IOException {
+        Path file = workbook();
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".lock"));
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".blocks"));
+    }
+}
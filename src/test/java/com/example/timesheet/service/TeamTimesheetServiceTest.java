@@ -0,0 +1,52 @@
+package com.example.timesheet.service;
+
+import com.example.timesheet.dto.TeamTimesheetRequest;
+import com.example.timesheet.entity.Employee;
+import com.example.timesheet.metrics.GenerationMetrics;
+import com.example.timesheet.repository.EmployeeDirectory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TeamTimesheetServiceTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void idsThatOnlyDifferInPunctuationGetTheirOwnEntries() throws Exception {
+        TeamTimesheetService service = new TeamTimesheetService(mock(TimesheetService.class), mock(EmployeeDirectory.class),
+                mock(ExecutorService.class), new GenerationMetrics(new SimpleMeterRegistry()));
+        TeamTimesheetRequest req = new TeamTimesheetRequest();
+        req.setYear(2025);
+        req.setMonth(3);
+        List<Employee> team = List.of(new Employee("Dotted", "A.B", "d@example.com", "01-Jan-2024"),
+                new Employee("Underscored", "A_B", "u@example.com", "01-Jan-2024"));
+        List<Path> parts = List.of(Files.writeString(dir.resolve("dotted.xlsx"), "dotted"),
+                Files.writeString(dir.resolve("underscored.xlsx"), "underscored"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeTeam(new TeamParts(req, team, parts), out);
+
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (ZipEntry e; (e = zip.getNextEntry()) != null; ) {
+                names.add(e.getName());
+            }
+        }
+        assertEquals(List.of("timesheet-A%2EB-2025-03.xlsx", "timesheet-A_B-2025-03.xlsx"), names);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.timesheet.service;
+
+import com.example.timesheet.dto.TimesheetRequest;
+import com.example.timesheet.entity.Employee;
+import com.example.timesheet.metrics.GenerationMetrics;
+import com.example.timesheet.repository.EmployeeDirectory;
+import com.example.timesheet.repository.EmployeeRepository;
+import com.example.timesheet.storage.ResponseCache;
+import com.example.timesheet.storage.TimesheetSheetStore;
+import com.example.timesheet.storage.WorkbookLocks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TimesheetServiceTest {
+
+    @TempDir
+    Path root;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private TimesheetService service;
+
+    @BeforeEach
+    void setUp() {
+        EmployeeRepository repo = mock(EmployeeRepository.class);
+        when(repo.findByEmployeeId("E1")).thenReturn(Optional.of(new Employee("Sudhir Kumar", "E1", "s@example.com", "21-Feb-2022")));
+        service = new TimesheetService(new EmployeeDirectory(repo, event -> { }, 16), new TimesheetSheetStore(root.toString(), new WorkbookLocks(16)),
+                new ResponseCache(1 << 24), new RenderLimiter(0), new GenerationMetrics(registry), false, false);
+    }
+
+    @Test
+    void repeatIsServedFromTheCache() throws Exception {
+        TimesheetDownload first = service.download(request(1, List.of("2025-01-06")));
+        TimesheetDownload repeat = service.download(request(1, List.of("2025-01-06")));
+
+        assertEquals(first.etag(), repeat.etag());
+        assertSame(first.content(), repeat.content());
+        assertEquals(1.0, cached());
+    }
+
+    @Test
+    void requestsThatOnlyDifferInFormShareTheCache() throws Exception {
+        TimesheetDownload first = service.download(request(1, List.of("2025-01-06", "2025-01-07")));
+        TimesheetDownload reordered = service.download(request(1, List.of("2025-01-07", "2025-01-06")));
+
+        assertEquals(first.etag(), reordered.etag());
+        assertEquals(1.0, cached());
+    }
+
+    @Test
+    void clientHoldingTheDownloadIsAnsweredWithoutRendering() throws Exception {
+        TimesheetDownload first = service.download(request(1, List.of("2025-01-06")));
+        TimesheetDownload again = service.download(request(1, List.of("2025-01-06")), first.etag()::equals);
+
+        assertTrue(again.notModified());
+        assertEquals(first.etag(), again.etag());
+        // the month was written once, by the first request
+        assertEquals(1, registry.get("timesheet.generation.phase").tags("workbook", "timesheet", "phase", "write").timer().count());
+    }
+
+    @Test
+    void monthRewrittenByAnotherRequestIsGeneratedAgain() throws Exception {
+        TimesheetDownload first = service.download(request(1, List.of("2025-01-06")));
+        service.download(request(1, List.of("2025-01-07")));
+        TimesheetDownload again = service.download(request(1, List.of("2025-01-06")), first.etag()::equals);
+
+        // the stored January is the other request's, so neither a 304 nor a cache hit is right
+        assertFalse(again.notModified());
+        assertEquals(0.0, cached());
+    }
+
+    @Test
+    void anotherRequestIsGenerated() throws Exception {
+        TimesheetDownload first = service.download(request(1, List.of("2025-01-06")));
+        TimesheetDownload other = service.download(request(1, List.of("2025-01-07")));
+
+        assertNotEquals(first.etag(), other.etag());
+        assertEquals(0.0, cached());
+    }
+
+    @Test
+    void anotherMonthChangesTheWorkbook() throws Exception {
+        TimesheetDownload january = service.download(request(1, List.of()));
+        // adds the February part, which the January download includes too
+        service.download(request(2, List.of()));
+        TimesheetDownload again = service.download(request(1, List.of()));
+
+        assertNotEquals(january.etag(), again.etag());
+        assertEquals(0.0, cached());
+    }
+
+    @Test
+    void invalidRequestsAreNeverCached() {
+        // a hit skips validation, so a rejected request must not leave an entry behind
+        for (int i = 0; i < 2; i++) {
+            assertThrows(IllegalArgumentException.class, () -> service.download(request(1, List.of("2025-02-03"))));
+        }
+        assertEquals(0.0, cached());
+    }
+
+    private double cached() {
+        Counter counter = registry.find("timesheet.generation.cached").counter();
+        return counter == null ? 0.0 : counter.count();
+    }
+
+    private static TimesheetRequest request(int month, List<String> leaves) {
+        TimesheetRequest req = new TimesheetRequest();
+        req.setEmployeeId("E1");
+        req.setYear(2025);
+        req.setMonth(month);
+        req.setManagerApproval("Approved");
+        req.setLeaveDates(leaves);
+        req.setSaturdayWeekoff(TimesheetRequest.ALL_WEEKOFF);
+        return req;
+    }
+}
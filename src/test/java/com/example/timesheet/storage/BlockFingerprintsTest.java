@@ -0,0 +1,86 @@
+package com.example.timesheet.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockFingerprintsTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void unknownUntilWritten() throws Exception {
+        Path file = dir.resolve("attendance-2025.xlsx");
+        Files.write(file, new byte[]{1, 2, 3});
+
+        assertEquals(Map.of(), new BlockFingerprints().current(file));
+    }
+
+    @Test
+    void recordsWhatWasWritten() throws Exception {
+        BlockFingerprints fingerprints = new BlockFingerprints();
+        Path file = dir.resolve("attendance-2025.xlsx");
+        Files.write(file, new byte[]{1, 2, 3});
+
+        fingerprints.written(file, Map.of("Sudhir/1", "P\u0000L\u0000WO", "Sudhir/2", "P=1"));
+
+        assertEquals(Map.of("Sudhir/1", "P\u0000L\u0000WO", "Sudhir/2", "P=1"), fingerprints.current(file));
+        assertTrue(Files.exists(dir.resolve("attendance-2025.xlsx.blocks")));
+    }
+
+    @Test
+    void sharedWithOtherInstances() throws Exception {
+        Path file = dir.resolve("attendance-2025.xlsx");
+        Files.write(file, new byte[]{1, 2, 3});
+
+        new BlockFingerprints().written(file, Map.of("Sudhir/1", "a"));
+
+        // another replica on the same volume
+        assertEquals(Map.of("Sudhir/1", "a"), new BlockFingerprints().current(dir.resolve("./attendance-2025.xlsx")));
+    }
+
+    @Test
+    void forgottenWhenTheFileChanges() throws Exception {
+        BlockFingerprints fingerprints = new BlockFingerprints();
+        Path file = dir.resolve("attendance-2025.xlsx");
+        Files.write(file, new byte[]{1, 2, 3});
+        fingerprints.written(file, Map.of("Sudhir/1", "a"));
+
+        Files.write(file, new byte[]{1, 2, 3, 4});
+        assertEquals(Map.of(), fingerprints.current(file));
+
+        // same size, rewritten later
+        Files.write(file, new byte[]{1, 2, 3});
+        fingerprints.written(file, Map.of("Sudhir/1", "a"));
+        Files.write(file, new byte[]{3, 2, 1});
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000));
+        assertEquals(Map.of(), fingerprints.current(file));
+    }
+
+    @Test
+    void forgottenWhenTheFileIsGone() throws Exception {
+        BlockFingerprints fingerprints = new BlockFingerprints();
+        Path file = dir.resolve("attendance-2025.xlsx");
+        Files.write(file, new byte[]{1, 2, 3});
+        fingerprints.written(file, Map.of("Sudhir/1", "a"));
+
+        Files.delete(file);
+        assertEquals(Map.of(), fingerprints.current(file));
+    }
+
+    @Test
+    void damagedSidecarIsIgnored() throws Exception {
+        Path file = dir.resolve("attendance-2025.xlsx");
+        Files.write(file, new byte[]{1, 2, 3});
+        Files.writeString(dir.resolve("attendance-2025.xlsx.blocks"), "block.x=\\uZZZZ\n");
+
+        assertEquals(Map.of(), new BlockFingerprints().current(file));
+    }
+}
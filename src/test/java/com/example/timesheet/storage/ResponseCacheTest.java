@@ -0,0 +1,88 @@
+package com.example.timesheet.storage;
+
+import com.example.timesheet.repository.EmployeeChanged;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheTest {
+
+    @Test
+    void leastRecentlyUsedGoesFirst() {
+        ResponseCache cache = new ResponseCache(30);
+        cache.put("a", "E1", new byte[10]);
+        cache.put("b", "E1", new byte[10]);
+        cache.put("c", "E1", new byte[10]);
+
+        // a is used again, so b is now the eldest
+        assertNotNull(cache.get("a"));
+        cache.put("d", "E1", new byte[10]);
+
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertNotNull(cache.get("d"));
+    }
+
+    @Test
+    void boundedByTotalBytes() {
+        ResponseCache cache = new ResponseCache(100);
+        cache.put("a", "E1", new byte[40]);
+        cache.put("b", "E1", new byte[40]);
+        // needs both older entries out
+        cache.put("c", "E1", new byte[90]);
+
+        assertNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+    }
+
+    @Test
+    void replacingAnEntryCountsItOnce() {
+        ResponseCache cache = new ResponseCache(100);
+        cache.put("a", "E1", new byte[60]);
+        cache.put("a", "E1", new byte[60]);
+        cache.put("b", "E1", new byte[40]);
+
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("b"));
+    }
+
+    @Test
+    void oversizeEntriesAreNotKept() {
+        ResponseCache cache = new ResponseCache(100);
+        cache.put("a", "E1", new byte[50]);
+        cache.put("big", "E1", new byte[101]);
+
+        assertNull(cache.get("big"));
+        // and nothing was evicted for it
+        assertNotNull(cache.get("a"));
+    }
+
+    @Test
+    void zeroBytesDisables() {
+        ResponseCache cache = new ResponseCache(0);
+        cache.put("a", "E1", new byte[1]);
+
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    void employeeChangeDropsTheirEntries() {
+        ResponseCache cache = new ResponseCache(100);
+        cache.put("a", "E1", new byte[10]);
+        cache.put("b", "E2", new byte[10]);
+
+        cache.employeeChanged(new EmployeeChanged("E1"));
+
+        assertNull(cache.get("a"));
+        assertNotNull(cache.get("b"));
+    }
+
+    @Test
+    void keyValuesAreLengthPrefixed() {
+        assertNotEquals(ResponseCache.key().add("ab").add("c").hex(), ResponseCache.key().add("a").add("bc").hex());
+        assertNotEquals(ResponseCache.key().add((String) null).hex(), ResponseCache.key().add("").hex());
+        assertEquals(ResponseCache.key().add("a").add(1).hex(), ResponseCache.key().add("a").add(1).hex());
+    }
+}
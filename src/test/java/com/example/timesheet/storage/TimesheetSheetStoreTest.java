@@ -0,0 +1,68 @@
+package com.example.timesheet.storage;
+
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimesheetSheetStoreTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void plainIdsKeepTheirName() {
+        assertEquals("TRE-604", TimesheetSheetStore.safeName("TRE-604"));
+        assertEquals("13536906", TimesheetSheetStore.safeName("13536906"));
+        assertEquals("A_B", TimesheetSheetStore.safeName("A_B"));
+    }
+
+    @Test
+    void idsThatUsedToCollideGetTheirOwnDirectory() {
+        List<String> ids = List.of("A/B", "A.B", "A_B", "A B", "A%2FB", "..", "Ä");
+        Set<String> names = ids.stream().map(TimesheetSheetStore::safeName).collect(Collectors.toSet());
+        assertEquals(ids.size(), names.size());
+
+        TimesheetSheetStore store = new TimesheetSheetStore(root.toString(), new WorkbookLocks(16));
+        for (String id : ids) {
+            Path part = store.partFor(2025, id, 1);
+            // one directory under the year, never outside it
+            assertEquals(root.resolve("2025"), part.getParent().getParent());
+        }
+    }
+
+    @Test
+    void escapesAreUtf8Bytes() {
+        assertEquals("A%2FB", TimesheetSheetStore.safeName("A/B"));
+        assertEquals("%2E%2E", TimesheetSheetStore.safeName(".."));
+        assertEquals("%C3%84", TimesheetSheetStore.safeName("Ä"));
+        assertTrue(TimesheetSheetStore.safeName("50%").endsWith("%25"));
+    }
+
+    @Test
+    void digestsAreRecordedWithTheParts() throws Exception {
+        TimesheetSheetStore store = new TimesheetSheetStore(root.toString(), new WorkbookLocks(16));
+        TimesheetSheetStore.Part written;
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            wb.createSheet("Sudhir, Jan 2025").createRow(0).createCell(0).setCellValue("January");
+            written = store.write(2025, "E1", 1, wb);
+        }
+
+        assertEquals(TimesheetSheetStore.digest(Files.readAllBytes(written.file())), written.digest());
+        assertEquals(List.of(written), store.stored(2025, "E1"));
+        // the sidecars are not parts
+        assertEquals(List.of(written.file()), store.parts(2025, "E1"));
+
+        // a part from before digests were recorded is read instead
+        Files.delete(written.file().resolveSibling("01.xlsx.sha256"));
+        assertEquals(List.of(written), store.stored(2025, "E1"));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.timesheet.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkbookLocksTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void secondHolderWaitsForTheFirst() throws Exception {
+        WorkbookLocks locks = new WorkbookLocks(4);
+        Path file = dir.resolve("attendance-2025.xlsx");
+
+        CompletableFuture<Void> second;
+        try (WorkbookLocks.Held first = locks.lock(file)) {
+            assertTrue(Files.exists(dir.resolve("attendance-2025.xlsx.lock")));
+
+            second = CompletableFuture.runAsync(() -> {
+                try (WorkbookLocks.Held held = locks.lock(dir.resolve("./attendance-2025.xlsx"))) {
+                    // got it
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            assertThrows(TimeoutException.class, () -> second.get(200, TimeUnit.MILLISECONDS));
+        }
+        second.get(5, TimeUnit.SECONDS);
+    }
+}